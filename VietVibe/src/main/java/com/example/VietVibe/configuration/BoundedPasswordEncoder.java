@@ -0,0 +1,136 @@
+package com.example.VietVibe.configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.VietVibe.exception.AppException;
+import com.example.VietVibe.exception.ErrorCode;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * PasswordEncoder chạy BCrypt/Argon2 trên pool riêng có giới hạn.
+ *
+ * Mỗi lần băm tốn hàng chục ms CPU; khi hàng trăm học viên đăng nhập cùng
+ * lúc đầu giờ học, băm trực tiếp trên luồng servlet chiếm hết CPU và mọi
+ * request khác phải chờ. Ở đây số phép băm chạy song song bị chặn bởi số
+ * worker, phần dư xếp hàng tối đa queue-capacity; hàng đợi đầy hoặc chờ quá
+ * max-wait-ms thì trả 429 ngay thay vì dồn thêm việc. Luồng gọi chỉ đứng chờ
+ * kết quả, không tốn CPU.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitMs;
+
+    private final LongAdder hashed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int workers, int queueCapacity, long maxWaitMs) {
+        this.delegate = delegate;
+        this.maxWaitMs = maxWaitMs;
+        AtomicInteger threadId = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + threadId.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // Chỉ đọc tiền tố {id} và cost trong hash, không cần đưa vào pool
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public Stats stats() {
+        long count = hashed.sum();
+        return new Stats(count, rejected.sum(), count == 0 ? 0 : totalNanos.sum() / count / 1_000_000,
+                maxNanos.get() / 1_000_000, executor.getActiveCount(), executor.getQueue().size());
+    }
+
+    @Scheduled(fixedDelayString = "${auth.password.stats-interval-ms:60000}")
+    public void logStats() {
+        Stats stats = stats();
+        if (stats.hashed() == 0 && stats.rejected() == 0) {
+            return;
+        }
+        log.info("Password hashing: {} done, {} rejected, avg {} ms, max {} ms, {} active, {} queued",
+                stats.hashed(), stats.rejected(), stats.avgMillis(), stats.maxMillis(), stats.active(),
+                stats.queued());
+        maxNanos.reset();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    hashed.increment();
+                    totalNanos.add(elapsed);
+                    maxNanos.accumulate(elapsed);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new AppException(ErrorCode.TOO_MANY_REQUESTS);
+        }
+        try {
+            return future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new AppException(ErrorCode.TOO_MANY_REQUESTS);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public record Stats(long hashed, long rejected, long avgMillis, long maxMillis, int active, int queued) {
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.VietVibe.configuration;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.MappedJwtClaimSetConverter;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+/**
+ * JwtDecoder của resource server (bearer token), có cache các token đã xác thực.
+ *
+ * Chỉ nhận access token: token có token_type=refresh bị từ chối ngay, vì
+ * refresh token sống lâu hơn nhiều và logout không thu hồi nó; refresh token
+ * chỉ được kiểm tra ở /auth/refresh (SecurityUtil.checkValidRefreshToken).
+ * Token chỉ được parse một lần rồi kiểm tra chữ ký với khoá access theo kid.
+ * SPA gửi nhiều request song song với cùng một bearer
+ * token, nên Jwt đã xác thực được giữ lại theo chữ ký HMAC của token (bản
+ * thân nó đã là digest của header + payload); lần sau chỉ còn so chuỗi token
+ * và kiểm tra exp. Cache có giới hạn số mục và thời gian sống.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+    private final JWSAlgorithm algorithm;
+    private final VerifierResolver verifiers;
+    private final int maxEntries;
+    private final Duration ttl;
+
+    private final Converter<Map<String, Object>, Map<String, Object>> claimSetConverter = MappedJwtClaimSetConverter
+            .withDefaults(Collections.emptyMap());
+    private final OAuth2TokenValidator<Jwt> validator = JwtValidators.createDefault();
+    private final Map<String, Entry> verified = new ConcurrentHashMap<>();
+
+    /**
+     * Chọn verifier access theo kid trong header; trả null nếu không có khoá
+     * phù hợp.
+     */
+    @FunctionalInterface
+    public interface VerifierResolver {
+        JWSVerifier resolve(String kid);
+    }
+
+    public CachingJwtDecoder(JWSAlgorithm algorithm, VerifierResolver verifiers, int maxEntries, Duration ttl) {
+        this.algorithm = algorithm;
+        this.verifiers = verifiers;
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = signatureOf(token);
+        Instant now = Instant.now();
+        Entry cached = verified.get(key);
+        if (cached != null) {
+            if (cached.isUsable(token, now)) {
+                return cached.jwt();
+            }
+            verified.remove(key, cached);
+        }
+
+        Jwt jwt = verify(token);
+        remember(key, new Entry(jwt, now.plus(ttl)), now);
+        return jwt;
+    }
+
+    private Jwt verify(String token) {
+        SignedJWT parsed;
+        JWTClaimsSet claims;
+        try {
+            parsed = SignedJWT.parse(token);
+            claims = parsed.getJWTClaimsSet();
+        } catch (ParseException e) {
+            throw new BadJwtException("Malformed token: " + e.getMessage(), e);
+        }
+        if (!algorithm.equals(parsed.getHeader().getAlgorithm())) {
+            throw new BadJwtException("Unsupported algorithm " + parsed.getHeader().getAlgorithm());
+        }
+
+        if ("refresh".equals(claims.getClaim("token_type"))) {
+            throw new BadJwtException("Refresh token cannot be used as a bearer token");
+        }
+        JWSVerifier verifier = verifiers.resolve(parsed.getHeader().getKeyID());
+        if (verifier == null) {
+            throw new BadJwtException("Unknown signing key " + parsed.getHeader().getKeyID());
+        }
+        try {
+            if (!parsed.verify(verifier)) {
+                throw new BadJwtException("Invalid signature");
+            }
+        } catch (JOSEException e) {
+            throw new BadJwtException("Failed to verify token: " + e.getMessage(), e);
+        }
+
+        Jwt jwt;
+        try {
+            jwt = Jwt.withTokenValue(token)
+                    .headers(headers -> headers.putAll(parsed.getHeader().toJSONObject()))
+                    .claims(values -> values.putAll(claimSetConverter.convert(claims.getClaims())))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            throw new BadJwtException("Invalid claims: " + e.getMessage(), e);
+        }
+        OAuth2TokenValidatorResult result = validator.validate(jwt);
+        if (result.hasErrors()) {
+            throw new JwtValidationException(result.getErrors().iterator().next().getDescription(),
+                    result.getErrors());
+        }
+        return jwt;
+    }
+
+    private void remember(String key, Entry entry, Instant now) {
+        if (verified.size() >= maxEntries) {
+            verified.values().removeIf(e -> !e.isFresh(now));
+            if (verified.size() >= maxEntries) {
+                // toàn token còn hạn: bỏ hết, các request sau xác thực lại
+                verified.clear();
+            }
+        }
+        verified.put(key, entry);
+    }
+
+    // Phần chữ ký (sau dấu chấm cuối) của JWS dạng compact
+    private static String signatureOf(String token) {
+        int dot = token.lastIndexOf('.');
+        return dot >= 0 ? token.substring(dot + 1) : token;
+    }
+
+    private record Entry(Jwt jwt, Instant cachedUntil) {
+
+        boolean isFresh(Instant now) {
+            return now.isBefore(cachedUntil) && (jwt.getExpiresAt() == null || now.isBefore(jwt.getExpiresAt()));
+        }
+
+        boolean isUsable(String token, Instant now) {
+            return isFresh(now) && jwt.getTokenValue().equals(token);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.VietVibe.configuration;
+
+import java.util.Map;
+
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Games, questions, answers và point chuyển từ IDENTITY sang sequence (pooled,
+ * allocationSize = 50) để Hibernate gom INSERT theo lô. MySQL không có
+ * sequence nên Hibernate giả lập bằng bảng *_seq (cột next_val), được tạo mới
+ * với giá trị 1.
+ *
+ * Với dữ liệu cũ, bảng sequence phải bắt đầu phía trên MAX(id) hiện có, nếu
+ * không id cấp phát sẽ trùng khoá chính. Bean này chạy sau khi Hibernate cập
+ * nhật schema và trước khi có câu INSERT nào.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class IdSequenceMigration {
+    // phải khớp allocationSize của @SequenceGenerator
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "games_seq", "games",
+            "questions_seq", "questions",
+            "answers_seq", "answers",
+            "point_seq", "point");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Không căn được thì dừng khởi động: chạy tiếp sẽ cấp id trùng khoá chính đang có
+    @PostConstruct
+    public void alignSequences() {
+        SEQUENCES.forEach((sequence, table) -> {
+            String seed = "SELECT COALESCE(MAX(id), 0) + " + (ALLOCATION_SIZE + 1) + " FROM " + table;
+            try {
+                int updated = jdbcTemplate.update(
+                        "UPDATE " + sequence + " SET next_val = GREATEST(next_val, (" + seed + "))");
+                if (updated == 0) {
+                    // bảng sequence rỗng: thêm dòng đã căn sẵn thay vì để bắt đầu lại từ 1
+                    updated = jdbcTemplate.update("INSERT INTO " + sequence + " (next_val) " + seed);
+                }
+                log.info("Aligned id sequence {} with table {} ({} row)", sequence, table, updated);
+            } catch (DataAccessException e) {
+                throw new IllegalStateException("Failed to align id sequence " + sequence + " with table " + table
+                        + "; refusing to start with a sequence that may hand out existing ids", e);
+            }
+        });
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.VietVibe.configuration;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.VietVibe.entity.InvalidatedToken;
+import com.example.VietVibe.service.InvalidatedTokenService;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bảng cũ invalidated_token lưu cả token (512 ký tự) làm khoá chính và không
+ * có thời điểm hết hạn. Bean này chuyển các token còn hạn sang
+ * invalidated_tokens (jti/SHA-256 + expires_at + expiry_bucket) rồi xoá bảng
+ * cũ, và gán expiry_bucket cho các dòng chưa có, trước khi
+ * InvalidatedTokenService nạp denylist.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class InvalidatedTokenMigration {
+    private final JdbcTemplate jdbcTemplate;
+
+    public InvalidatedTokenMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        backfillBuckets();
+        migrateLegacyTable();
+    }
+
+    // Dòng ghi trước khi có cột expiry_bucket
+    private void backfillBuckets() {
+        try {
+            int updated = jdbcTemplate.update("UPDATE invalidated_tokens SET expiry_bucket = "
+                    + "FLOOR(UNIX_TIMESTAMP(expires_at) / " + InvalidatedToken.EXPIRY_BUCKET_SECONDS + ") "
+                    + "WHERE expiry_bucket IS NULL");
+            if (updated > 0) {
+                log.info("Assigned expiry buckets to {} invalidated tokens", updated);
+            }
+        } catch (Exception e) {
+            log.warn("Skip backfilling expiry buckets: {}", e.getMessage());
+        }
+    }
+
+    private void migrateLegacyTable() {
+        List<String> tokens;
+        try {
+            tokens = jdbcTemplate.queryForList("SELECT access_token FROM invalidated_token", String.class);
+        } catch (Exception e) {
+            // không có bảng cũ
+            return;
+        }
+
+        int migrated = 0;
+        for (String token : tokens) {
+            try {
+                JWTClaimsSet claims = SignedJWT.parse(token).getJWTClaimsSet();
+                Date exp = claims.getExpirationTime();
+                if (exp == null || exp.toInstant().isBefore(Instant.now())) {
+                    continue;
+                }
+                migrated += jdbcTemplate.update(
+                        "INSERT IGNORE INTO invalidated_tokens (id, expires_at, expiry_bucket) VALUES (?, ?, ?)",
+                        InvalidatedTokenService.keyOf(claims.getJWTID(), token), Timestamp.from(exp.toInstant()),
+                        InvalidatedToken.bucketOf(exp.toInstant()));
+            } catch (Exception e) {
+                log.debug("Skip unparseable invalidated token: {}", e.getMessage());
+            }
+        }
+        try {
+            jdbcTemplate.execute("DROP TABLE invalidated_token");
+            log.info("Migrated {} of {} invalidated tokens to invalidated_tokens", migrated, tokens.size());
+        } catch (Exception e) {
+            log.warn("Failed to drop legacy invalidated_token table: {}", e.getMessage());
+        }
+    }
+}
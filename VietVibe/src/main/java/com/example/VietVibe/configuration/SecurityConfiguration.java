@@ -1,5 +1,9 @@
 package com.example.VietVibe.configuration;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -7,16 +11,40 @@ import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.util.ClassUtils;
 
 @Configuration
 @EnableMethodSecurity(securedEnabled = true)
 public class SecurityConfiguration {
         @Bean
-        public PasswordEncoder passwordEncoder() {
-                return new BCryptPasswordEncoder();
+        public BoundedPasswordEncoder passwordEncoder(
+                        @Value("${auth.password.encoder:bcrypt}") String encodeWith,
+                        @Value("${auth.password.bcrypt-strength:10}") int bcryptStrength,
+                        @Value("${auth.password.hash-workers:0}") int workers,
+                        @Value("${auth.password.queue-capacity:64}") int queueCapacity,
+                        @Value("${auth.password.max-wait-ms:5000}") long maxWaitMs) {
+                Map<String, PasswordEncoder> encoders = new HashMap<>();
+                BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+                encoders.put("bcrypt", bcrypt);
+                // Argon2 cần BouncyCastle trên classpath
+                if (ClassUtils.isPresent("org.bouncycastle.crypto.params.Argon2Parameters", null)) {
+                        encoders.put("argon2", Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+                }
+                if (!encoders.containsKey(encodeWith)) {
+                        throw new IllegalStateException("Unsupported auth.password.encoder " + encodeWith
+                                        + ", available: " + encoders.keySet());
+                }
+                DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(encodeWith, encoders);
+                // hash cũ lưu dạng $2a$10$... không có tiền tố {id}; được băm lại khi đăng nhập
+                delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+                return new BoundedPasswordEncoder(delegating,
+                                workers > 0 ? workers : Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+                                queueCapacity, maxWaitMs);
         }
 
         @Bean
@@ -32,6 +60,8 @@ public class SecurityConfiguration {
                                 .cors(Customizer.withDefaults())
                                 .authorizeHttpRequests(
                                                 authz -> authz
+                                                                // /files/** public để tải/stream, riêng upload nhiều phần phải đăng nhập
+                                                                .requestMatchers("/files/uploads/**").authenticated()
                                                                 .requestMatchers(HttpMethod.GET, "/products/**")
                                                                 .permitAll()
                                                                 .requestMatchers(HttpMethod.GET,
@@ -1,7 +1,6 @@
 package com.example.VietVibe.configuration;
 
-import javax.crypto.SecretKey;
-import javax.crypto.spec.SecretKeySpec;
+import java.time.Duration;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,61 +8,45 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
-import org.springframework.security.oauth2.jwt.JwtEncoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 
 import com.example.VietVibe.exception.AppException;
 import com.example.VietVibe.exception.ErrorCode;
 import com.example.VietVibe.service.InvalidatedTokenService;
-import com.example.VietVibe.util.SecurityUtil;
-import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import com.example.VietVibe.util.JwtKeyMaterial;
 
 @Configuration
 public class SecurityJwtConfiguration {
 
-    @Value("${auth.jwt.base64-secret-access}")
-    private String accessTokenKey;
+    @Value("${auth.jwt.verified-cache.max-entries:10000}")
+    private int verifiedCacheMaxEntries;
 
-    @Value("${auth.jwt.base64-secret-fresh}")
-    private String refreshTokenKey;
+    @Value("${auth.jwt.verified-cache.ttl-seconds:300}")
+    private long verifiedCacheTtlSeconds;
 
     @Autowired
     private InvalidatedTokenService invalidatedTokenService;
 
-    private SecretKey getSecretKey(String base64Key) {
-        byte[] keyBytes = java.util.Base64.getDecoder().decode(base64Key);
-        return new SecretKeySpec(keyBytes, 0, keyBytes.length, SecurityUtil.JWT_ALGORITHM.getName());
-    }
-
-    @Bean
-    public JwtEncoder jwtEncoder() {
-        // This example uses accessTokenKey for encoding. Update as necessary.
-        return new NimbusJwtEncoder(new ImmutableSecret<>(getSecretKey(accessTokenKey)));
-    }
+    @Autowired
+    private JwtKeyMaterial jwtKeyMaterial;
 
     @Bean
     public JwtDecoder jwtDecoder() {
-        // Create decoders for access and refresh tokens
-        NimbusJwtDecoder accessTokenDecoder = NimbusJwtDecoder.withSecretKey(getSecretKey(accessTokenKey))
-                .macAlgorithm(SecurityUtil.JWT_ALGORITHM).build();
-
-        NimbusJwtDecoder refreshTokenDecoder = NimbusJwtDecoder.withSecretKey(getSecretKey(refreshTokenKey))
-                .macAlgorithm(SecurityUtil.JWT_ALGORITHM).build();
+        // Parse once, pick the access key by kid, reject refresh tokens, cache verified tokens
+        CachingJwtDecoder decoder = new CachingJwtDecoder(
+                JwtKeyMaterial.ALGORITHM,
+                kid -> jwtKeyMaterial.verifier(kid, false),
+                verifiedCacheMaxEntries,
+                Duration.ofSeconds(verifiedCacheTtlSeconds));
 
         return token -> {
             try {
-                if (invalidatedTokenService.checkToken(token)) {
-                    throw new AppException(ErrorCode.UNAUTHENTICATED);
-                }
+                Jwt jwt = decoder.decode(token);
 
-                // Parse the token and determine the type (access or refresh)
-                Jwt jwt = accessTokenDecoder.decode(token);
-                if ("refresh".equals(jwt.getClaims().get("token_type"))) {
-                    // Decode as refresh token
-                    jwt = refreshTokenDecoder.decode(token);
+                // denylist trong bộ nhớ, chỉ kiểm tra token đã qua xác thực chữ ký
+                if (invalidatedTokenService.isRevoked(jwt)) {
+                    throw new AppException(ErrorCode.UNAUTHENTICATED);
                 }
                 return jwt;
             } catch (Exception e) {
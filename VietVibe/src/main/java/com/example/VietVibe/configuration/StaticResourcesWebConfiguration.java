@@ -1,18 +1,106 @@
 package com.example.VietVibe.configuration;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.server.MimeMappings;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.server.ConfigurableServletWebServerFactory;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
+import com.example.VietVibe.service.CachePolicyService;
+import com.example.VietVibe.service.ContentHashService;
+import com.example.VietVibe.service.HlsPackagingService;
+import com.example.VietVibe.service.ThumbnailService;
+
+import lombok.extern.slf4j.Slf4j;
 
 @Configuration
+@Slf4j
 public class StaticResourcesWebConfiguration implements WebMvcConfigurer {
     @Value("${upload.file.uri}")
     private String baseURI;
 
+    private final ContentHashService contentHashService;
+    private final CachePolicyService cachePolicyService;
+
+    public StaticResourcesWebConfiguration(ContentHashService contentHashService,
+            CachePolicyService cachePolicyService) {
+        this.contentHashService = contentHashService;
+        this.cachePolicyService = cachePolicyService;
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        // HLS và thumbnail được ghi một lần rồi không đổi (xem HlsPackagingService,
+        // ThumbnailService) nên cache dài hạn
+        for (String folder : List.of(HlsPackagingService.HLS_FOLDER, ThumbnailService.THUMBS_FOLDER)) {
+            registry.addResourceHandler("/storage/" + folder + "/**")
+                    .addResourceLocations(baseURI + folder + "/")
+                    .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+                    .setEtagGenerator(strongETag())
+                    .resourceChain(true)
+                    .addResolver(new UploadResourceResolver());
+        }
+        cachePolicyService.folderPolicies().forEach((folder, cacheControl) -> registry
+                .addResourceHandler("/storage/" + folder + "/**")
+                .addResourceLocations(baseURI + folder + "/")
+                .setCacheControl(cacheControl)
+                .setEtagGenerator(strongETag())
+                .resourceChain(true)
+                .addResolver(new UploadResourceResolver()));
         registry.addResourceHandler("/storage/**")
-                .addResourceLocations(baseURI);
+                .addResourceLocations(baseURI)
+                .setCacheControl(CacheControl.noCache())
+                .setEtagGenerator(strongETag())
+                .resourceChain(true)
+                .addResolver(new UploadResourceResolver());
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<ConfigurableServletWebServerFactory> hlsMimeMappings() {
+        return factory -> {
+            MimeMappings mappings = new MimeMappings(MimeMappings.DEFAULT);
+            mappings.add("m3u8", "application/vnd.apple.mpegurl");
+            mappings.add("ts", "video/mp2t");
+            factory.setMimeMappings(mappings);
+        };
+    }
+
+    // ETag = SHA-256 nội dung; ResourceHttpRequestHandler tự trả 304 khi If-None-Match khớp
+    private Function<Resource, String> strongETag() {
+        return resource -> {
+            try {
+                return contentHashService.strongETag(resource.getFile().toPath());
+            } catch (IOException e) {
+                log.debug("No ETag for {}: {}", resource, e.getMessage());
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Không phục vụ các đường dẫn bắt đầu bằng "." (kho nội dung .cas, file
+     * tạm, index hash).
+     */
+    private static final class UploadResourceResolver extends PathResourceResolver {
+        @Override
+        protected Resource getResource(String resourcePath, Resource location) throws IOException {
+            for (String segment : resourcePath.split("/")) {
+                if (segment.startsWith(".")) {
+                    return null;
+                }
+            }
+            return super.getResource(resourcePath, location);
+        }
     }
 }
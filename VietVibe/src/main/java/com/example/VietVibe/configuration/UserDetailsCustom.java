@@ -5,6 +5,7 @@ import java.util.Collections;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
@@ -13,7 +14,7 @@ import com.example.VietVibe.service.UserService;
 
 
 @Component("userDetailsService")
-public class UserDetailsCustom implements UserDetailsService {
+public class UserDetailsCustom implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserService userService;
 
@@ -32,4 +33,11 @@ public class UserDetailsCustom implements UserDetailsService {
                 Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
     }
 
+    // DaoAuthenticationProvider gọi khi passwordEncoder.upgradeEncoding(hash cũ) = true
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        this.userService.updateUserPassword(user.getUsername(), newPassword);
+        return User.withUserDetails(user).password(newPassword).build();
+    }
+
 }
@@ -1,20 +1,28 @@
 package com.example.VietVibe.controller;
 
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.VietVibe.dto.request.UploadInitRequest;
+import com.example.VietVibe.dto.response.MediaJobResponse;
 import com.example.VietVibe.dto.response.ResUploadFileDTO;
+import com.example.VietVibe.dto.response.UploadSessionResponse;
+import com.example.VietVibe.entity.MediaJob;
 import com.example.VietVibe.exception.StorageException;
+import com.example.VietVibe.service.CachePolicyService;
+import com.example.VietVibe.service.ChunkedUploadService;
+import com.example.VietVibe.service.ContentHashService;
 import com.example.VietVibe.service.FileService;
+import com.example.VietVibe.service.MediaProcessingService;
+import com.example.VietVibe.service.MediaStreamService;
 import com.example.VietVibe.util.annotation.ApiMessage;
 
-import ws.schild.jave.MultimediaObject;
-import ws.schild.jave.info.MultimediaInfo;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
-import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
@@ -29,12 +37,14 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 
 @RestController
@@ -44,9 +54,21 @@ public class FileController {
     private String baseURI;
 
     private final FileService fileService;
-
-    public FileController(FileService fileService) {
+    private final MediaProcessingService mediaProcessingService;
+    private final MediaStreamService mediaStreamService;
+    private final ChunkedUploadService chunkedUploadService;
+    private final ContentHashService contentHashService;
+    private final CachePolicyService cachePolicyService;
+
+    public FileController(FileService fileService, MediaProcessingService mediaProcessingService,
+            MediaStreamService mediaStreamService, ChunkedUploadService chunkedUploadService,
+            ContentHashService contentHashService, CachePolicyService cachePolicyService) {
         this.fileService = fileService;
+        this.mediaProcessingService = mediaProcessingService;
+        this.mediaStreamService = mediaStreamService;
+        this.chunkedUploadService = chunkedUploadService;
+        this.contentHashService = contentHashService;
+        this.cachePolicyService = cachePolicyService;
     }
 
     @PostMapping()
@@ -61,76 +83,112 @@ public class FileController {
         }
 
         String fileName = file.getOriginalFilename();
-        List<String> allowedExtensions = Arrays.asList("mp4", "avi", "mov", "wmv", "mkv", "flv", "webm", "3gp");
-        boolean isValid = allowedExtensions.stream().anyMatch(item -> fileName.toLowerCase().endsWith(item));
-
-        if (!isValid) {
+        if (!FileService.isAllowedVideo(fileName)) {
             throw new StorageException("Invalid file extension.");
         }
 
         // 2. Tạo folder và Lưu file
-        // Sử dụng đường dẫn vật lý để lưu
         this.fileService.createDirectory(baseURI + folder);
         String uploadedFileName = this.fileService.store(file, folder);
 
-        // --- SỬA LẠI PHẦN ĐƯỜNG DẪN Ở ĐÂY ---
-        // Loại bỏ các tiền tố "file:/" để Jave2 đọc được đường dẫn tuyệt đối của
-        // Windows
-        String cleanBaseURI = baseURI.replace("file:///", "").replace("file:/", "").replace("file:", "");
-
-        // Sử dụng Paths.get để tự động xử lý dấu gạch chéo (/ hoặc \)
-        java.nio.file.Path path = java.nio.file.Paths.get(cleanBaseURI, folder, uploadedFileName);
-        File source = path.toFile();
-        // ------------------------------------
-
-        long durationInSeconds = 0;
-        try {
-            // Chỉ thực hiện nếu file thực sự tồn tại và đọc được
-            if (source.exists() && source.canRead()) {
-                MultimediaObject instance = new MultimediaObject(source);
-                MultimediaInfo info = instance.getInfo(); // Sẽ không bị treo nữa vì path đã chuẩn
-                long durationMs = info.getDuration();
-                durationInSeconds = durationMs / 1000;
-            }
-        } catch (Exception e) {
-            // Log lỗi để debug nhưng không làm sập luồng upload
-            System.err.println("Lỗi lấy thời lượng video: " + e.getMessage());
-        }
+        return ResponseEntity.ok().body(uploadResult(folder, uploadedFileName));
+    }
+
+    // ========== UPLOAD NHIỀU PHẦN (tiếp tục được khi rớt mạng) ==========
+
+    @PostMapping("/uploads")
+    @ApiMessage("Start chunked upload")
+    public ResponseEntity<UploadSessionResponse> initUpload(@RequestBody UploadInitRequest request)
+            throws IOException, URISyntaxException {
+        return ResponseEntity.status(HttpStatus.CREATED).body(this.chunkedUploadService.init(request));
+    }
+
+    @GetMapping("/uploads/{id}")
+    @ApiMessage("Get chunked upload status")
+    public ResponseEntity<UploadSessionResponse> getUpload(@PathVariable("id") String id) {
+        return ResponseEntity.ok().body(this.chunkedUploadService.status(id));
+    }
+
+    // Body là dữ liệu thô của chunk (application/octet-stream), không qua multipart
+    @PutMapping("/uploads/{id}/chunks/{index}")
+    @ApiMessage("Upload chunk success")
+    public ResponseEntity<UploadSessionResponse> uploadChunk(@PathVariable("id") String id,
+            @PathVariable("index") int index,
+            @RequestHeader(name = "X-Chunk-Sha256", required = false) String sha256,
+            HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok().body(
+                this.chunkedUploadService.writeChunk(id, index, sha256, request.getInputStream()));
+    }
+
+    @PostMapping("/uploads/{id}/complete")
+    @ApiMessage("Upload single file")
+    public ResponseEntity<ResUploadFileDTO> completeUpload(@PathVariable("id") String id)
+            throws IOException, URISyntaxException {
+        String folder = this.chunkedUploadService.folderOf(id);
+        String fileName = this.fileService.adopt(folder, this.chunkedUploadService.complete(id));
+        return ResponseEntity.ok().body(uploadResult(folder, fileName));
+    }
+
+    @DeleteMapping("/uploads/{id}")
+    @ApiMessage("Abort chunked upload")
+    public ResponseEntity<Void> abortUpload(@PathVariable("id") String id) {
+        this.chunkedUploadService.abort(id);
+        return ResponseEntity.ok().build();
+    }
+
+    // Probe thời lượng / chuyển mã chạy nền, không giữ luồng request
+    private ResUploadFileDTO uploadResult(String folder, String uploadedFileName) {
+        MediaJob job = this.mediaProcessingService.enqueue(folder, uploadedFileName);
 
-        // 4. Trả về DTO
         ResUploadFileDTO res = new ResUploadFileDTO();
         res.setFileName(uploadedFileName);
         res.setUploadedAt(Instant.now());
-        res.setDurationSeconds(durationInSeconds);
+        res.setDurationSeconds(0);
+        res.setDurationFormatted(MediaProcessingService.formatDuration(0));
+        res.setJobId(job.getId());
+        res.setStatus(job.getStatus());
+        return res;
+    }
 
-        // Format sang phút:giây
-        String formatted = String.format("%02d:%02d", (durationInSeconds / 60), (durationInSeconds % 60));
-        res.setDurationFormatted(formatted);
+    // Phát video hỗ trợ Range/If-Range (tua, xem tiếp) thay cho /storage/**
+    @RequestMapping(value = "/stream/{folder}/{fileName:.+}", method = { RequestMethod.GET, RequestMethod.HEAD })
+    public void stream(@PathVariable("folder") String folder, @PathVariable("fileName") String fileName,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        this.mediaStreamService.stream(folder, fileName, request, response);
+    }
 
-        return ResponseEntity.ok().body(res);
+    @GetMapping("/jobs/{id}")
+    @ApiMessage("Get media job status")
+    public ResponseEntity<MediaJobResponse> getJob(@PathVariable("id") String id) {
+        return ResponseEntity.ok().body(this.mediaProcessingService.getJob(id));
     }
 
     @GetMapping()
     public ResponseEntity<Resource> download(
             @RequestParam(name = "fileName", required = false) String fileName,
             @RequestParam(name = "folder", required = false) String folder)
-            throws StorageException, FileNotFoundException, URISyntaxException {
+            throws StorageException, URISyntaxException, IOException {
         if (fileName == null || folder == null)
             throw new StorageException("Missing required params: (fileName or folder)");
 
-        // check file length
-        long fileLength = this.fileService.getFileLength(fileName, folder);
+        // download a file (chặn "../" và đường dẫn ẩn như .cas); có ETag/Last-Modified thì Spring tự trả 304
+        Path path = this.fileService.resolveExisting(folder, fileName);
+        long fileLength = Files.size(path);
         if (fileLength == 0)
             throw new StorageException("File with name = " + fileName + " not found");
 
-        // download a file
-        InputStreamResource resource = this.fileService.getResource(fileName, folder);
-
-        return ResponseEntity.ok()
+        // ETag chỉ có khi hash đã sẵn, chưa có thì client dựa vào Last-Modified
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        String eTag = this.contentHashService.strongETag(path);
+        if (eTag != null)
+            response.eTag(eTag);
+        return response
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .lastModified(Files.getLastModifiedTime(path).toMillis())
+                .cacheControl(this.cachePolicyService.forFolder(folder))
                 .contentLength(fileLength)
                 .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .body(resource);
+                .body(new FileSystemResource(path));
     }
 
 }
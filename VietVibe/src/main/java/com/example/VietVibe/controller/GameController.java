@@ -1,22 +1,35 @@
 package com.example.VietVibe.controller;
 
+import java.io.IOException;
+
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.VietVibe.dto.request.GameCreationRequest;
+import com.example.VietVibe.dto.request.GameRunSubmitRequest;
+import com.example.VietVibe.dto.request.GameSubmitRequest;
 import com.example.VietVibe.dto.request.GameUpdateRequest;
 import com.example.VietVibe.dto.request.UserUpdateRequest;
 import com.example.VietVibe.dto.response.ApiPagination;
 import com.example.VietVibe.dto.response.ApiString;
 import com.example.VietVibe.dto.response.CountElementResponse;
+import com.example.VietVibe.dto.response.GameImportResponse;
 import com.example.VietVibe.dto.response.GameResponse;
+import com.example.VietVibe.dto.response.GameSummaryResponse;
+import com.example.VietVibe.dto.response.LeaderboardResponse;
+import com.example.VietVibe.dto.response.QuestionResultResponse;
+import com.example.VietVibe.dto.response.SubmitGameResponse;
 import com.example.VietVibe.dto.response.UserResponse;
 import com.example.VietVibe.entity.Game;
 import com.example.VietVibe.entity.User;
+import com.example.VietVibe.service.GamePlayService;
 import com.example.VietVibe.service.GameService;
+import com.example.VietVibe.service.GameTransferService;
 import com.example.VietVibe.util.annotation.ApiMessage;
 import com.turkraft.springfilter.boot.Filter;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -24,7 +37,9 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -33,6 +48,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/games")
@@ -41,6 +57,8 @@ import org.springframework.web.bind.annotation.RequestParam;
 @Slf4j
 public class GameController {
     GameService gameService;
+    GamePlayService gamePlayService;
+    GameTransferService gameTransferService;
 
     @GetMapping("/{id}")
     @ApiMessage("Get a game from database")
@@ -54,12 +72,39 @@ public class GameController {
         return ResponseEntity.ok().body(this.gameService.getAllGames(spec, pageable));
     }
 
+    // Danh sách rút gọn cho màn hình list, chi tiết câu hỏi chỉ có ở GET /games/{id}
+    @GetMapping("/summary")
+    @ApiMessage("Get game summaries")
+    ResponseEntity<ApiPagination<GameSummaryResponse>> getGameSummaries(@Filter Specification<Game> spec,
+            Pageable pageable) {
+        return ResponseEntity.ok().body(this.gameService.getGameSummaries(spec, pageable));
+    }
+
     @PostMapping("/create")
     @ApiMessage("Create a new game success")
     ResponseEntity<GameResponse> createGame(@RequestBody GameCreationRequest request) {
         return ResponseEntity.status(HttpStatus.CREATED).body(this.gameService.create(request));
     }
 
+    // Body là mảng JSON hoặc NDJSON các GameCreationRequest, đọc dạng stream
+    @PostMapping("/import")
+    @ApiMessage("Import games success")
+    ResponseEntity<GameImportResponse> importGames(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok().body(this.gameTransferService.importGames(request.getInputStream()));
+    }
+
+    @GetMapping("/export")
+    ResponseEntity<StreamingResponseBody> exportGames(
+            @RequestParam(name = "format", defaultValue = "json") String format) {
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        StreamingResponseBody body = output -> this.gameTransferService.exportGames(output, ndjson);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"games." + (ndjson ? "ndjson" : "json") + "\"")
+                .contentType(ndjson ? MediaType.parseMediaType("application/x-ndjson") : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     @DeleteMapping("/{id}")
     @ApiMessage("Delete a game success")
     ResponseEntity<ApiString> deleteGame(@PathVariable long id) {
@@ -83,6 +128,26 @@ public class GameController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/{id}/submit")
+    @ApiMessage("Submit a question success")
+    ResponseEntity<QuestionResultResponse> submitQuestion(@PathVariable Long id,
+            @RequestBody GameSubmitRequest request) {
+        return ResponseEntity.ok().body(this.gamePlayService.submitQuestion(id, request));
+    }
+
+    // Nộp toàn bộ câu trả lời của một lượt chơi: chấm + lưu point trong một request
+    @PostMapping("/{id}/submit/batch")
+    @ApiMessage("Submit game success")
+    ResponseEntity<SubmitGameResponse> submitGame(@PathVariable Long id, @RequestBody GameRunSubmitRequest request) {
+        return ResponseEntity.ok().body(this.gamePlayService.submitGame(id, request));
+    }
+
+    @GetMapping("/{id}/leaderboard")
+    @ApiMessage("Get game leaderboard")
+    ResponseEntity<LeaderboardResponse> getLeaderboard(@PathVariable Long id) {
+        return ResponseEntity.ok().body(this.gameService.getLeaderboard(id));
+    }
+
     @GetMapping("/count/total")
     @ApiMessage("Count games success")
     ResponseEntity<CountElementResponse> countGames() {
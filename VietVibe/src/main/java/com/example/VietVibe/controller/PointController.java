@@ -87,15 +87,19 @@ public class PointController {
 
     @GetMapping("/user/{username}/history")
     @PreAuthorize("hasRole('ADMIN') or #username == authentication.name")
-    public ResponseEntity<List<PointResponse>> getHistory(@PathVariable String username) {
-        return ResponseEntity.ok(pointService.getHistory(username));
+    public ResponseEntity<ApiPagination<PointResponse>> getHistory(@PathVariable String username,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(pointService.getHistory(username, cursor, size));
     }
 
     @GetMapping("/history")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<PointResponse>> getMyHistory(Authentication authentication) {
+    public ResponseEntity<ApiPagination<PointResponse>> getMyHistory(Authentication authentication,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         String currentUserId = authentication.getName();
-        return ResponseEntity.ok(pointService.getHistory(currentUserId));
+        return ResponseEntity.ok(pointService.getHistory(currentUserId, cursor, size));
     }
 
 
@@ -105,6 +109,12 @@ public class PointController {
         return ResponseEntity.ok(pointService.addPoint(request));
     }
 
+    @PostMapping("/stats/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Integer> rebuildUserStats() {
+        return ResponseEntity.ok(pointService.rebuildUserStats());
+    }
+
     // Mới: Get user stats
     @GetMapping("/user/{userId}/stats/game")
     public ResponseEntity<UserStatsResponse> getUserStats(@PathVariable String userId) {
@@ -0,0 +1,12 @@
+package com.example.VietVibe.dto.request;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+// Toàn bộ câu trả lời của một lượt chơi, chấm và lưu điểm trong một request
+@Data
+public class GameRunSubmitRequest {
+    private List<QuestionAnswerRequest> answers = new ArrayList<>();
+}
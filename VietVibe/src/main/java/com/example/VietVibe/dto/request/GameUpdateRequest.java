@@ -26,5 +26,8 @@ public class GameUpdateRequest {
 
     GameType type;
 
+    // version đọc được từ GET /games/{id}; null = không kiểm tra
+    Long version;
+
     ArrayList<Question> questions = new ArrayList<>();
 }
@@ -0,0 +1,17 @@
+package com.example.VietVibe.dto.request;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class UploadInitRequest {
+    String fileName;
+    String folder;
+    long size;
+    // null = dùng kích thước mặc định của server
+    Integer chunkSize;
+}
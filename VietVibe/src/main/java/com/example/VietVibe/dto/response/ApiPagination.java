@@ -32,5 +32,8 @@ public class ApiPagination<T> {
         int pageSize;
         int pages;
         long total;
+
+        // Cursor (opaque) của trang tiếp theo khi phân trang kiểu keyset, null nếu đã hết
+        String nextCursor;
     }
 }
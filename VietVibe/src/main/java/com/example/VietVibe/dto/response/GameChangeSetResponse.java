@@ -0,0 +1,28 @@
+package com.example.VietVibe.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.Data;
+
+// Những gì một lần updateGame thực sự thay đổi
+@Data
+public class GameChangeSetResponse {
+    private boolean gameUpdated;
+    private int questionsAdded;
+    private int questionsUpdated;
+    private int questionsRemoved;
+    private int answersAdded;
+    private int answersUpdated;
+    private int answersRemoved;
+
+    @JsonIgnore
+    public boolean hasChildChanges() {
+        return questionsAdded + questionsUpdated + questionsRemoved
+                + answersAdded + answersUpdated + answersRemoved > 0;
+    }
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return !gameUpdated && !hasChildChanges();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.VietVibe.dto.response;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class GameImportResponse {
+    private int imported;
+    private int failed;
+    private int batches;
+    private boolean completed; // false nếu dừng giữa chừng vì JSON hỏng
+    private List<String> errors; // tối đa vài chục lỗi đầu tiên
+}
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 
 import com.example.VietVibe.entity.Question;
 import com.example.VietVibe.enums.GameType;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
@@ -27,6 +28,11 @@ public class GameResponse {
     GameType type;
     int timesPlayed;  // Thêm
     int bestScore;    // Thêm
+    long version;
 
     ArrayList<Question> questions = new ArrayList<>();
+
+    // chỉ có trong response của updateGame
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    GameChangeSetResponse changes;
 }
@@ -0,0 +1,29 @@
+package com.example.VietVibe.dto.response;
+
+import com.example.VietVibe.enums.GameType;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+// Dạng rút gọn của GameResponse cho màn danh sách (không kèm questions/answers)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@JsonPropertyOrder(alphabetic = true)
+public class GameSummaryResponse {
+    @JsonProperty("_id")
+    Long id;
+
+    String name;
+
+    String description;
+
+    GameType type;
+    int totalQuestion;
+    int timesPlayed;
+    int bestScore;
+}
@@ -0,0 +1,20 @@
+package com.example.VietVibe.dto.response;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntryResponse {
+    private Long pointId;
+    private String userId;
+    private String userName;
+    private int score; // score + bonus
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,16 @@
+package com.example.VietVibe.dto.response;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class LeaderboardResponse {
+    private Long gameId;
+    private int maxScore;
+    private int minScore;
+    private long totalPlays;
+    private List<LeaderboardEntryResponse> entries;
+}
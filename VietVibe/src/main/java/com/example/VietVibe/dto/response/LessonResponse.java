@@ -30,4 +30,7 @@ public class LessonResponse {
     String updatedBy;
     float progress;
     String time;
+    String hlsPath;
+    String posterPath;
+    String thumbnailsPath;
 }
@@ -0,0 +1,34 @@
+package com.example.VietVibe.dto.response;
+
+import java.time.Instant;
+
+import com.example.VietVibe.enums.MediaJobStatus;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@JsonPropertyOrder(alphabetic = true)
+public class MediaJobResponse {
+    @JsonProperty("_id")
+    String id;
+
+    String folder;
+    String fileName;
+    MediaJobStatus status;
+    long durationSeconds;
+    String durationFormatted;
+    String webFileName;
+    String hlsPath;
+    String posterPath;
+    String thumbnailsPath;
+    String error;
+    Instant createdAt;
+    Instant finishedAt;
+}
@@ -11,6 +11,7 @@ import lombok.experimental.FieldDefaults;
 
 import java.time.Instant;
 
+import com.example.VietVibe.enums.MediaJobStatus;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
 @Data
@@ -24,4 +25,6 @@ public class ResUploadFileDTO {
     Instant uploadedAt;
     long durationSeconds; // Thời lượng tính bằng giây
     String durationFormatted; // Định dạng kiểu 05:30 (nếu muốn)
+    String jobId; // Job xử lý video, thời lượng có sau khi job xong (GET /files/jobs/{id})
+    MediaJobStatus status;
 }
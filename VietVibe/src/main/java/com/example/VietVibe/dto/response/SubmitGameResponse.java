@@ -2,11 +2,20 @@ package com.example.VietVibe.dto.response;
 
 import java.util.List;
 
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
 public class SubmitGameResponse {
     private Long gameId;
     private int totalQuestions;
     private int correctCount;
     private double accuracy;
 
+    private Long pointId;
+    private int score;
+    private int bonus;
+
     private List<QuestionResultResponse> details;
 }
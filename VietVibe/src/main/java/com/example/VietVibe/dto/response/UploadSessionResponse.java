@@ -0,0 +1,25 @@
+package com.example.VietVibe.dto.response;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@JsonPropertyOrder(alphabetic = true)
+public class UploadSessionResponse {
+    String uploadId;
+    String fileName;
+    String folder;
+    long size;
+    int chunkSize;
+    int totalChunks;
+    int receivedChunks;
+    List<Integer> missingChunks;
+}
@@ -3,6 +3,8 @@ package com.example.VietVibe.entity;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.OptimisticLock;
 import org.springframework.boot.context.properties.bind.DefaultValue;
 
 import com.example.VietVibe.enums.GameType;
@@ -21,10 +23,18 @@ import lombok.experimental.FieldDefaults;
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Entity(name = "games")
+@NamedEntityGraph(name = Game.GRAPH_CATALOG)
+@NamedEntityGraph(name = Game.GRAPH_QUESTIONS, attributeNodes = @NamedAttributeNode("questions"))
 @JsonPropertyOrder(alphabetic = true)
 public class Game {
+    // Chỉ các cột của bảng games, không kèm collection
+    public static final String GRAPH_CATALOG = "Game.catalog";
+    // Kèm questions; answers được nạp ở bước riêng (xem GameFetchService)
+    public static final String GRAPH_QUESTIONS = "Game.questions";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "games_seq")
+    @SequenceGenerator(name = "games_seq", sequenceName = "games_seq", allocationSize = 50)
     @JsonProperty("_id")
     long id;
 
@@ -33,18 +43,30 @@ public class Game {
     String description;
 
     int totalQuestion;
+
+    // Chỉ được ghi bởi GameCounterService (UPDATE tương đối), save() của entity không ghi đè
+    @Column(name = "times_played", updatable = false)
     int timesPlayed;
 
+    @Column(name = "best_score", updatable = false)
     int bestScore = 0;
 
     @Enumerated(EnumType.STRING)
     GameType type; //
 
+    // Optimistic lock cho cả cây game; GameService.updateGame tự tăng khi chỉ question/answer đổi
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    long version;
+
     @OneToMany(mappedBy = "game", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OptimisticLock(excluded = true)
     @JsonManagedReference
     List<Question> questions = new ArrayList<>();
 
     @OneToMany(mappedBy = "game", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @OptimisticLock(excluded = true)
     @JsonManagedReference
     List<Point> points = new ArrayList<>();
 
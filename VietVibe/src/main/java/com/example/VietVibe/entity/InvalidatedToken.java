@@ -1,8 +1,13 @@
 package com.example.VietVibe.entity;
 
+import java.time.Instant;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
@@ -12,9 +17,30 @@ import lombok.experimental.FieldDefaults;
 @NoArgsConstructor
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
-@Entity
+@Entity(name = "invalidated_tokens")
+@Table(indexes = @Index(name = "idx_invalidated_token_bucket", columnList = "expiry_bucket"))
 public class InvalidatedToken {
+    // mỗi bucket là một giờ; dọn dẹp xoá nguyên các bucket đã qua theo index
+    public static final long EXPIRY_BUCKET_SECONDS = 3600;
+
+    // jti của token, hoặc SHA-256 (hex) của cả token với token cũ không có jti
     @Id
-    @Column(name = "access_token", length = 512, nullable = false)
-    String accessToken;
+    @Column(length = 64, nullable = false)
+    String id;
+
+    // bằng exp của token: sau thời điểm này token tự hết hạn, không cần giữ nữa
+    @Column(name = "expires_at", nullable = false)
+    Instant expiresAt;
+
+    @Column(name = "expiry_bucket")
+    Long expiryBucket;
+
+    @PrePersist
+    void assignBucket() {
+        expiryBucket = bucketOf(expiresAt);
+    }
+
+    public static long bucketOf(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), EXPIRY_BUCKET_SECONDS);
+    }
 }
@@ -41,6 +41,11 @@ public class Lesson {
     String updatedBy;
     String time;
     int durationSeconds;
+    // master playlist HLS của video (hls/.../master.m3u8), null nếu chưa đóng gói
+    String hlsPath;
+    // poster.jpg và sprite.vtt (thumbs/...), null nếu chưa tạo
+    String posterPath;
+    String thumbnailsPath;
     @Enumerated(EnumType.STRING)
     LessonLevel level;
 
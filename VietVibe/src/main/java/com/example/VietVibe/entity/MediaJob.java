@@ -0,0 +1,67 @@
+package com.example.VietVibe.entity;
+
+import java.time.Instant;
+
+import com.example.VietVibe.enums.MediaJobStatus;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+// Job xử lý video sau upload (probe thời lượng, chuyển mã), do MediaProcessingService chạy
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Entity(name = "media_jobs")
+@Table(indexes = {
+        @Index(name = "idx_media_job_status", columnList = "status, created_at"),
+        @Index(name = "idx_media_job_file", columnList = "file_name")
+})
+@JsonPropertyOrder(alphabetic = true)
+public class MediaJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @JsonProperty("_id")
+    String id;
+
+    String folder;
+
+    @Column(name = "file_name", nullable = false)
+    String fileName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    MediaJobStatus status;
+
+    long durationSeconds;
+
+    // bản mp4 H.264/AAC nếu có chuyển mã
+    String webFileName;
+
+    // master playlist HLS, tương đối với thư mục upload
+    String hlsPath;
+
+    // ảnh poster và WebVTT của sprite thumbnail, tương đối với thư mục upload
+    String posterPath;
+    String thumbnailsPath;
+
+    @Column(length = 1000)
+    String error;
+
+    int attempts;
+
+    @Column(name = "created_at")
+    Instant createdAt;
+    Instant startedAt;
+    Instant finishedAt;
+
+    @PrePersist
+    public void handleBeforeCreate() {
+        this.createdAt = Instant.now();
+    }
+}
@@ -9,6 +9,7 @@ import java.time.LocalDateTime;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
 @Entity
+@Table(indexes = @Index(name = "idx_point_user_created", columnList = "user_id, created_at, id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -17,7 +18,8 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class Point {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "point_seq")
+    @SequenceGenerator(name = "point_seq", sequenceName = "point_seq", allocationSize = 50)
     Long id;
 
     int score;
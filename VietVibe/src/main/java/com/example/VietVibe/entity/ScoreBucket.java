@@ -0,0 +1,32 @@
+package com.example.VietVibe.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Histogram row of the leaderboard summary: how many points of a game reached
+ * a given total (score + bonus).
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Entity(name = "score_buckets")
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_score_bucket_game_score", columnNames = { "game_id", "score" }))
+public class ScoreBucket {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Column(name = "game_id", nullable = false)
+    long gameId;
+
+    @Column(name = "score", nullable = false)
+    int score;
+
+    @Column(name = "occurrences", nullable = false)
+    long occurrences;
+}
@@ -0,0 +1,50 @@
+package com.example.VietVibe.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+// Tên file công khai (folder/fileName) trỏ tới blob sha256 trong StorageBackend
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Entity(name = "stored_files")
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_stored_file_name", columnNames = { "folder", "file_name" }),
+        indexes = @Index(name = "idx_stored_file_sha", columnList = "sha256, folder"))
+public class StoredFile {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Column(nullable = false, length = 100)
+    String folder;
+
+    @Column(name = "file_name", nullable = false)
+    String fileName;
+
+    @Column(nullable = false, length = 64)
+    String sha256;
+
+    long size;
+
+    // số bản ghi (lesson) đang trỏ tới tên này; về 0 quá thời gian ân hạn thì tên bị dọn
+    int refCount;
+
+    Instant createdAt;
+
+    // lần cuối được upload lại, gắn vào hoặc gỡ khỏi lesson; mốc tính thời gian ân hạn
+    Instant lastUsedAt;
+
+    @PrePersist
+    public void handleBeforeCreate() {
+        this.createdAt = Instant.now();
+        if (this.lastUsedAt == null) {
+            this.lastUsedAt = this.createdAt;
+        }
+    }
+}
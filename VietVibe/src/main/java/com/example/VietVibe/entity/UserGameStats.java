@@ -0,0 +1,39 @@
+package com.example.VietVibe.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Tổng hợp điểm của một user trong một game, được cập nhật cùng transaction
+ * với bảng point để thống kê không phải quét toàn bộ lịch sử.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Entity(name = "user_game_stats")
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_user_game_stats_user_game", columnNames = { "user_id",
+        "game_id" }), indexes = @Index(name = "idx_user_game_stats_game", columnList = "game_id"))
+public class UserGameStats {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Column(name = "user_id", nullable = false)
+    String userId;
+
+    @Column(name = "game_id", nullable = false)
+    long gameId;
+
+    @Column(name = "best_score", nullable = false)
+    int bestScore; // score + bonus cao nhất
+
+    @Column(name = "play_count", nullable = false)
+    long playCount;
+
+    @Column(name = "total_score", nullable = false)
+    long totalScore; // tổng score + bonus của mọi lượt chơi
+}
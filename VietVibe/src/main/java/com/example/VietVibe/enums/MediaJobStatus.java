@@ -0,0 +1,8 @@
+package com.example.VietVibe.enums;
+
+public enum MediaJobStatus {
+    QUEUED,
+    PROCESSING,
+    COMPLETED,
+    FAILED
+}
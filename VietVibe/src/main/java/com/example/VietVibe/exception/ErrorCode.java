@@ -16,6 +16,8 @@ public enum ErrorCode {
     COOKIES_EMPTY(400, "You don't have refresh_token in cookies", HttpStatus.BAD_REQUEST),
     INVALID_REFRESH_TOKEN(400, "Invalid refresh_token", HttpStatus.BAD_REQUEST),
     INVALID_ACCESSTOKEN(400, "Invalid access token", HttpStatus.BAD_REQUEST),
+    TOO_MANY_REQUESTS(429, "Server is busy, please try again in a moment", HttpStatus.TOO_MANY_REQUESTS),
+    TOO_MANY_UPLOADS(429, "Too many uploads in progress, finish or abort one first", HttpStatus.TOO_MANY_REQUESTS),
 
     // CHECK EXISTED
     USER_EXISTED(400, "User existed", HttpStatus.BAD_REQUEST),
@@ -31,6 +33,11 @@ public enum ErrorCode {
     CARTDETAIL_NOT_EXISTED(400, "Cart detail not existed", HttpStatus.BAD_REQUEST),
     GAME_NOT_FOUND(404, "Game not found", HttpStatus.NOT_FOUND),
     QUESTION_NOT_EXISTED(404, "Question not existed", HttpStatus.NOT_FOUND),
+    UPLOAD_NOT_EXISTED(404, "Upload session not existed", HttpStatus.NOT_FOUND),
+    FILE_NOT_EXISTED(404, "File not existed", HttpStatus.NOT_FOUND),
+    MEDIA_JOB_NOT_EXISTED(404, "Media job not existed", HttpStatus.NOT_FOUND),
+    UPLOAD_CLOSED(409, "Upload session is already completed or aborted", HttpStatus.CONFLICT),
+    GAME_VERSION_CONFLICT(409, "Game was changed by someone else, reload and try again", HttpStatus.CONFLICT),
 
     // VALIDATE:
     USERNAME_INVALID(400, "Username must be at least {min} characters", HttpStatus.BAD_REQUEST),
@@ -40,6 +47,12 @@ public enum ErrorCode {
     INVALID_PHONE_NUMBER(400, "Phone number is invalid", HttpStatus.BAD_REQUEST),
     INVALID_CATEGORY_NAME(400, "Category name is invalid", HttpStatus.BAD_REQUEST),
     INVALID_TAG_NAME(400, "Tag name is invalid", HttpStatus.BAD_REQUEST),
+    INVALID_CURSOR(400, "Cursor is invalid", HttpStatus.BAD_REQUEST),
+    INVALID_FILE_TYPE(400, "Invalid file extension", HttpStatus.BAD_REQUEST),
+    INVALID_UPLOAD_SIZE(400, "Upload size is invalid", HttpStatus.BAD_REQUEST),
+    INVALID_CHUNK(400, "Chunk index or length is invalid", HttpStatus.BAD_REQUEST),
+    CHUNK_CHECKSUM_MISMATCH(400, "Chunk checksum does not match", HttpStatus.BAD_REQUEST),
+    UPLOAD_INCOMPLETE(400, "Upload still has missing chunks", HttpStatus.BAD_REQUEST),
     ;
 
     ErrorCode(int code, String message, HttpStatusCode statusCode) {
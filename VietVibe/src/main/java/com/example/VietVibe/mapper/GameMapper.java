@@ -5,21 +5,27 @@ import org.mapstruct.Mapping;
 
 import com.example.VietVibe.dto.request.GameCreationRequest;
 import com.example.VietVibe.dto.response.GameResponse;
+import com.example.VietVibe.dto.response.GameSummaryResponse;
 import com.example.VietVibe.dto.response.PlayAnswerResponse;
 import com.example.VietVibe.dto.response.PlayGameResponse;
 import com.example.VietVibe.dto.response.PlayQuestionResponse;
 import com.example.VietVibe.entity.Answer;
 import com.example.VietVibe.entity.Game;
 import com.example.VietVibe.entity.Question;
+import com.example.VietVibe.repository.GameRepository;
 
 @Mapper(componentModel = "spring")
 public interface GameMapper {
+    @Mapping(target = "version", ignore = true)
     Game toGame(GameCreationRequest request);
 
     @Mapping(target = "timesPlayed", source = "timesPlayed")
     @Mapping(target = "bestScore", source = "bestScore")
+    @Mapping(target = "changes", ignore = true)
     GameResponse toGameResponse(Game game);
 
+    GameSummaryResponse toGameSummaryResponse(GameRepository.GameSummary summary);
+
     PlayGameResponse toPlayGameResponse(Game game);
 
     PlayQuestionResponse toPlayQuestionResponse(Question question);
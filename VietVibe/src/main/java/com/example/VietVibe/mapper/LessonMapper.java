@@ -18,6 +18,9 @@ public interface LessonMapper {
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "createdBy", ignore = true)
     @Mapping(target = "updatedBy", ignore = true)
+    @Mapping(target = "hlsPath", ignore = true)
+    @Mapping(target = "posterPath", ignore = true)
+    @Mapping(target = "thumbnailsPath", ignore = true)
     Lesson toLesson(LessonCreationRequest request);
 
     @Mapping(target = "_id", source = "id")
@@ -29,5 +32,9 @@ public interface LessonMapper {
     @Mapping(target = "createdBy", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "updatedBy", ignore = true)
+    @Mapping(target = "hlsPath", ignore = true)
+    @Mapping(target = "posterPath", ignore = true)
+    @Mapping(target = "thumbnailsPath", ignore = true)
+    @Mapping(target = "durationSeconds", ignore = true)
     void updateLesson(@MappingTarget Lesson lesson, LessonUpdateRequest request);
 }
@@ -1,13 +1,64 @@
 package com.example.VietVibe.repository;
 
 import com.example.VietVibe.entity.Game;
+import com.example.VietVibe.enums.GameType;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 
 @Repository
 public interface GameRepository extends JpaRepository<Game, Long>, JpaSpecificationExecutor<Game> {
+
+    // Projection cho danh sách game: chỉ các cột hiển thị, không chạm tới questions/answers
+    interface GameSummary {
+        long getId();
+
+        String getName();
+
+        String getDescription();
+
+        GameType getType();
+
+        int getTotalQuestion();
+
+        int getTimesPlayed();
+
+        int getBestScore();
+    }
+
     List<Game> findByName(String name);
+
+    // Trang danh sách: chỉ cột của games, phân trang trên bảng gốc nên LIMIT/COUNT luôn đúng
+    @Override
+    @EntityGraph(Game.GRAPH_CATALOG)
+    Page<Game> findAll(Specification<Game> spec, Pageable pageable);
+
+    @EntityGraph(Game.GRAPH_QUESTIONS)
+    Optional<Game> findWithQuestionsById(Long id);
+
+    @EntityGraph(Game.GRAPH_QUESTIONS)
+    List<Game> findWithQuestionsByIdIn(Collection<Long> ids);
+
+    // Duyệt toàn bộ game theo id tăng dần (keyset), dùng cho export
+    @Query("SELECT g.id FROM games g WHERE g.id > :afterId ORDER BY g.id")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT g.type FROM games g WHERE g.id = :id")
+    Optional<GameType> findTypeById(@Param("id") Long id);
+
+    // Dòng phẳng (questionId, answerId, isCorrect, orderIndex) để dựng answer key, không cần lazy loading
+    @Query("SELECT q.id, a.id, a.isCorrect, a.orderIndex FROM questions q LEFT JOIN q.answers a "
+            + "WHERE q.game.id = :gameId")
+    List<Object[]> findAnswerKeyRows(@Param("gameId") Long gameId);
 }
@@ -1,12 +1,24 @@
 package com.example.VietVibe.repository;
 
+import java.time.Instant;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.VietVibe.entity.InvalidatedToken;
 
 @Repository
 public interface InvalidatedTokenRepository extends JpaRepository<InvalidatedToken, String> {
-    boolean existsByAccessToken(String accessToken);
-}
+    List<InvalidatedToken> findByExpiresAtAfter(Instant now);
 
+    // Xoá tối đa :limit token thuộc các bucket trước :bucket (quét theo index expiry_bucket)
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM invalidated_tokens WHERE expiry_bucket < :bucket LIMIT :limit", nativeQuery = true)
+    int deleteExpiredBatch(@Param("bucket") long bucket, @Param("limit") int limit);
+}
@@ -4,9 +4,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.VietVibe.entity.Lesson;
 import com.example.VietVibe.entity.User;
@@ -14,5 +16,14 @@ import com.example.VietVibe.entity.User;
 @Repository
 public interface LessonRepository extends JpaRepository<Lesson, String>, JpaSpecificationExecutor<Lesson> {
     boolean existsByLessontitle(String lessontitle);
+
+    // Ghi kết quả media job (thời lượng, HLS) cho mọi lesson dùng video này
+    @Modifying
+    @Transactional
+    @Query("UPDATE lessons l SET l.durationSeconds = :seconds, l.time = :time, l.hlsPath = :hlsPath, "
+            + "l.posterPath = :posterPath, l.thumbnailsPath = :thumbnailsPath WHERE l.videourl = :videourl")
+    int applyMediaResult(@Param("videourl") String videourl, @Param("seconds") long seconds,
+            @Param("time") String time, @Param("hlsPath") String hlsPath,
+            @Param("posterPath") String posterPath, @Param("thumbnailsPath") String thumbnailsPath);
     // Page<Lesson> findByUsersContainingOrderByCreatedAtDesc(User user, Pageable pageable);
 }
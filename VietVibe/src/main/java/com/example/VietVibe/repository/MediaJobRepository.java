@@ -0,0 +1,19 @@
+package com.example.VietVibe.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.VietVibe.entity.MediaJob;
+import com.example.VietVibe.enums.MediaJobStatus;
+
+@Repository
+public interface MediaJobRepository extends JpaRepository<MediaJob, String> {
+    List<MediaJob> findByStatusInOrderByCreatedAtAsc(Collection<MediaJobStatus> statuses, Pageable pageable);
+
+    Optional<MediaJob> findFirstByFileNameAndStatusOrderByFinishedAtDesc(String fileName, MediaJobStatus status);
+}
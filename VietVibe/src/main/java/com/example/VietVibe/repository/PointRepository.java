@@ -3,6 +3,7 @@ package com.example.VietVibe.repository;
 import com.example.VietVibe.entity.Point;
 import com.example.VietVibe.entity.User;
 import com.example.VietVibe.entity.Game;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
@@ -31,4 +32,19 @@ public interface PointRepository extends JpaRepository<Point, Long>, JpaSpecific
 
     Optional<Point> findByUserAndGameAndScoreAndBonus(User user, Game game, int score,
             int bonus);
+
+    // Lịch sử theo kiểu keyset: sắp xếp (createdAt, id) giảm dần, dùng index idx_point_user_created
+    @Query("SELECT p FROM Point p JOIN FETCH p.game WHERE p.user.id = :userId "
+            + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Point> findHistoryFirstPage(@Param("userId") String userId, Pageable pageable);
+
+    @Query("SELECT p FROM Point p JOIN FETCH p.game WHERE p.user.id = :userId "
+            + "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) "
+            + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Point> findHistoryAfter(@Param("userId") String userId, @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT p FROM Point p JOIN FETCH p.user WHERE p.game.id = :gameId "
+            + "ORDER BY (p.score + p.bonus) DESC, p.createdAt ASC, p.id ASC")
+    List<Point> findLeaders(@Param("gameId") long gameId, Pageable pageable);
 }
\ No newline at end of file
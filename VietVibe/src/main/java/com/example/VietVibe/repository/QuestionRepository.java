@@ -0,0 +1,17 @@
+package com.example.VietVibe.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.VietVibe.entity.Question;
+
+@Repository
+public interface QuestionRepository extends JpaRepository<Question, Long> {
+
+    @EntityGraph(Question.GRAPH_ANSWERS)
+    List<Question> findByGameIdIn(Collection<Long> gameIds);
+}
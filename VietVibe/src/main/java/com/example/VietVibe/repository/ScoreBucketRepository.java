@@ -0,0 +1,33 @@
+package com.example.VietVibe.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.VietVibe.entity.ScoreBucket;
+
+@Repository
+public interface ScoreBucketRepository extends JpaRepository<ScoreBucket, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO score_buckets (game_id, score, occurrences) VALUES (:gameId, :score, :delta) "
+            + "ON DUPLICATE KEY UPDATE occurrences = occurrences + :delta", nativeQuery = true)
+    void increment(@Param("gameId") long gameId, @Param("score") int score, @Param("delta") long delta);
+
+    @Modifying
+    @Query(value = "DELETE FROM score_buckets WHERE game_id = :gameId AND score = :score AND occurrences <= 0", nativeQuery = true)
+    void deleteEmpty(@Param("gameId") long gameId, @Param("score") int score);
+
+    @Modifying
+    @Query(value = "DELETE FROM score_buckets WHERE game_id = :gameId", nativeQuery = true)
+    void deleteByGameId(@Param("gameId") long gameId);
+
+    // Dựng lại histogram từ bảng point (chỉ dùng khi bảng tổng hợp còn trống)
+    @Modifying
+    @Query(value = "INSERT INTO score_buckets (game_id, score, occurrences) "
+            + "SELECT game_id, score + bonus, COUNT(*) FROM point WHERE game_id IS NOT NULL "
+            + "GROUP BY game_id, score + bonus", nativeQuery = true)
+    int rebuildFromPoints();
+}
@@ -0,0 +1,43 @@
+package com.example.VietVibe.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.VietVibe.entity.StoredFile;
+
+@Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, Long> {
+    Optional<StoredFile> findFirstBySha256AndFolderOrderByIdAsc(String sha256, String folder);
+
+    Optional<StoredFile> findByFolderAndFileName(String folder, String fileName);
+
+    boolean existsBySha256(String sha256);
+
+    // không xuống dưới 0 kể cả khi gỡ tên chưa từng được gắn
+    @Modifying
+    @Query("UPDATE stored_files f SET f.refCount = CASE WHEN f.refCount + :delta < 0 THEN 0 "
+            + "ELSE f.refCount + :delta END, f.lastUsedAt = :now WHERE f.id = :id")
+    int adjustRefCount(@Param("id") long id, @Param("delta") int delta, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE stored_files f SET f.lastUsedAt = :now WHERE f.id = :id")
+    int touch(@Param("id") long id, @Param("now") Instant now);
+
+    // transaction riêng cho từng dòng: sweep xoá file trên đĩa chỉ sau khi dòng đã bị xoá hẳn
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM stored_files f WHERE f.id = :id AND f.refCount <= 0 AND f.lastUsedAt < :before")
+    int deleteIfUnreferenced(@Param("id") long id, @Param("before") Instant before);
+
+    List<StoredFile> findByFolderInAndRefCountLessThanEqualAndLastUsedAtBefore(Collection<String> folders,
+            int refCount, Instant before);
+}
@@ -0,0 +1,60 @@
+package com.example.VietVibe.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.VietVibe.entity.UserGameStats;
+
+@Repository
+public interface UserGameStatsRepository extends JpaRepository<UserGameStats, Long> {
+
+    interface UserTotals {
+        long getTotalPoints();
+
+        long getGamesPlayed();
+
+        int getHighestScore();
+    }
+
+    @Query("SELECT COALESCE(SUM(s.bestScore), 0) AS totalPoints, COALESCE(SUM(s.playCount), 0) AS gamesPlayed, "
+            + "COALESCE(MAX(s.bestScore), 0) AS highestScore FROM user_game_stats s WHERE s.userId = :userId")
+    UserTotals findTotalsByUserId(@Param("userId") String userId);
+
+    @Query("SELECT COALESCE(SUM(s.totalScore), 0) FROM user_game_stats s WHERE s.userId = :userId")
+    long sumTotalScoreByUserId(@Param("userId") String userId);
+
+    @Modifying
+    @Query(value = "INSERT INTO user_game_stats (user_id, game_id, best_score, play_count, total_score) "
+            + "VALUES (:userId, :gameId, :score, 1, :score) "
+            + "ON DUPLICATE KEY UPDATE best_score = GREATEST(best_score, :score), "
+            + "play_count = play_count + 1, total_score = total_score + :score", nativeQuery = true)
+    void recordPlay(@Param("userId") String userId, @Param("gameId") long gameId, @Param("score") int score);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_game_stats WHERE user_id = :userId AND game_id = :gameId", nativeQuery = true)
+    void deleteByUserIdAndGameId(@Param("userId") String userId, @Param("gameId") long gameId);
+
+    // Tính lại một cặp (user, game) từ bảng point, dùng khi point bị sửa hoặc xoá
+    @Modifying
+    @Query(value = "INSERT INTO user_game_stats (user_id, game_id, best_score, play_count, total_score) "
+            + "SELECT user_id, game_id, MAX(score + bonus), COUNT(*), SUM(score + bonus) FROM point "
+            + "WHERE user_id = :userId AND game_id = :gameId GROUP BY user_id, game_id", nativeQuery = true)
+    void recompute(@Param("userId") String userId, @Param("gameId") long gameId);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_game_stats WHERE game_id = :gameId", nativeQuery = true)
+    void deleteByGameId(@Param("gameId") long gameId);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_game_stats", nativeQuery = true)
+    void deleteAllRows();
+
+    @Modifying
+    @Query(value = "INSERT INTO user_game_stats (user_id, game_id, best_score, play_count, total_score) "
+            + "SELECT user_id, game_id, MAX(score + bonus), COUNT(*), SUM(score + bonus) FROM point "
+            + "WHERE user_id IS NOT NULL AND game_id IS NOT NULL GROUP BY user_id, game_id", nativeQuery = true)
+    int rebuildFromPoints();
+}
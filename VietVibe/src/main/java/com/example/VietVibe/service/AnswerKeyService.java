@@ -0,0 +1,142 @@
+package com.example.VietVibe.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Service;
+
+import com.example.VietVibe.entity.Answer;
+import com.example.VietVibe.enums.GameType;
+import com.example.VietVibe.exception.AppException;
+import com.example.VietVibe.exception.ErrorCode;
+import com.example.VietVibe.repository.GameRepository;
+import com.example.VietVibe.util.TransactionHooks;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache đáp án của từng game (questionId -> id đáp án đúng / thứ tự đúng) để
+ * chấm bài chỉ là một lần tra bảng băm, không cần load Game và lazy load
+ * questions/answers.
+ *
+ * Key được dựng một lần, bất biến và mang version; GameService gọi
+ * {@link #invalidate(long)} khi game bị sửa hoặc xoá.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class AnswerKeyService {
+    GameRepository gameRepository;
+
+    Map<Long, AnswerKey> keys = new ConcurrentHashMap<>();
+    // version tăng mỗi lần invalidate, dùng để bỏ các key dựng từ dữ liệu cũ
+    Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public AnswerKey get(long gameId) {
+        AnswerKey key = keys.get(gameId);
+        if (key != null) {
+            return key;
+        }
+
+        long version = version(gameId).get();
+        AnswerKey built = build(gameId, version);
+        // chỉ cache nếu không có invalidate nào chen vào trong lúc đang dựng
+        keys.compute(gameId, (id, current) -> version(id).get() == version ? built : current);
+        return built;
+    }
+
+    public void invalidate(long gameId) {
+        TransactionHooks.afterCommit(() -> {
+            version(gameId).incrementAndGet();
+            keys.remove(gameId);
+        });
+    }
+
+    private AtomicLong version(long gameId) {
+        return versions.computeIfAbsent(gameId, id -> new AtomicLong());
+    }
+
+    private AnswerKey build(long gameId, long version) {
+        GameType type = gameRepository.findTypeById(gameId)
+                .orElseThrow(() -> new AppException(ErrorCode.GAME_NOT_EXISTED));
+
+        Map<Long, List<Answer>> answersByQuestion = new LinkedHashMap<>();
+        for (Object[] row : gameRepository.findAnswerKeyRows(gameId)) {
+            List<Answer> answers = answersByQuestion.computeIfAbsent((Long) row[0], id -> new ArrayList<>());
+            if (row[1] != null) {
+                answers.add(Answer.builder()
+                        .id((Long) row[1])
+                        .isCorrect(Boolean.TRUE.equals(row[2]))
+                        .orderIndex((Integer) row[3])
+                        .build());
+            }
+        }
+
+        Map<Long, QuestionKey> questions = new HashMap<>(answersByQuestion.size() * 2);
+        answersByQuestion.forEach((questionId, answers) -> {
+            Long correctAnswerId = answers.stream()
+                    .filter(Answer::isCorrect)
+                    .findFirst()
+                    .map(Answer::getId)
+                    .orElse(null);
+            long[] correctOrder = answers.stream()
+                    .sorted(Comparator.comparing(Answer::getOrderIndex,
+                            Comparator.nullsLast(Comparator.naturalOrder())))
+                    .mapToLong(Answer::getId)
+                    .toArray();
+            questions.put(questionId, new QuestionKey(questionId, correctAnswerId, correctOrder));
+        });
+
+        log.debug("Built answer key for game {} (version {}, {} questions)", gameId, version, questions.size());
+        return new AnswerKey(gameId, version, type, Map.copyOf(questions));
+    }
+
+    public record AnswerKey(long gameId, long version, GameType type, Map<Long, QuestionKey> questions) {
+
+        public QuestionKey question(Long questionId) {
+            QuestionKey question = questionId == null ? null : questions.get(questionId);
+            if (question == null) {
+                throw new AppException(ErrorCode.QUESTION_NOT_EXISTED);
+            }
+            return question;
+        }
+    }
+
+    public record QuestionKey(long questionId, Long correctAnswerId, long[] correctOrder) {
+
+        public boolean isCorrectChoice(Long answerId) {
+            return answerId != null && answerId.equals(correctAnswerId);
+        }
+
+        public boolean isCorrectOrder(List<Long> orderedAnswerIds) {
+            if (orderedAnswerIds.size() != correctOrder.length) {
+                return false;
+            }
+            for (int i = 0; i < correctOrder.length; i++) {
+                Long id = orderedAnswerIds.get(i);
+                if (id == null || id != correctOrder[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public List<Long> correctOrderList() {
+            List<Long> order = new ArrayList<>(correctOrder.length);
+            for (long id : correctOrder) {
+                order.add(id);
+            }
+            return order;
+        }
+    }
+}
@@ -24,18 +24,16 @@ import com.example.VietVibe.dto.request.UserCreationRequest;
 import com.example.VietVibe.dto.response.AuthenticationResponse;
 import com.example.VietVibe.dto.response.IntrospectResponse;
 import com.example.VietVibe.dto.response.UserResponse;
-import com.example.VietVibe.entity.InvalidatedToken;
 import com.example.VietVibe.entity.User;
 import com.example.VietVibe.exception.AppException;
 import com.example.VietVibe.exception.ErrorCode;
 import com.example.VietVibe.mapper.AuthMapper;
 import com.example.VietVibe.mapper.UserMapper;
-import com.example.VietVibe.repository.InvalidatedTokenRepository;
 import com.example.VietVibe.repository.UserRepository;
+import com.example.VietVibe.util.JwtKeyMaterial;
 import com.example.VietVibe.util.SecurityUtil;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSVerifier;
-import com.nimbusds.jose.crypto.MACVerifier;
 import com.nimbusds.jwt.SignedJWT;
 
 import lombok.AccessLevel;
@@ -56,20 +54,13 @@ public class AuthenticationService {
     AuthMapper authMapper;
     UserMapper userMapper;
     UserRepository userRepository;
-    InvalidatedTokenRepository invalidatedTokenRepository;
+    InvalidatedTokenService invalidatedTokenService;
+    JwtKeyMaterial jwtKeyMaterial;
 
     @Value("${auth.jwt.refresh-token-validity-in-seconds}")
     @NonFinal
     long refreshTokenExpiration;
 
-    @Value("${auth.jwt.base64-secret-access}")
-    @NonFinal
-    String SIGNER_KEY;
-
-    @Value("${auth.jwt.base64-secret-fresh}")
-    @NonFinal
-    String SIGNER_KEY_REFRESH;
-
     public IntrospectResponse introspect(IntrospectRequest request) throws JOSEException, ParseException {
         var token = request.getToken();
         boolean isValid = true;
@@ -170,11 +161,7 @@ public class AuthenticationService {
             // Tách token từ chuỗi Bearer Token
             token = authorizationHeader.substring(7);
         }
-        SignedJWT signToken = SignedJWT.parse(token);
-
-        InvalidatedToken invalidatedToken = InvalidatedToken.builder().accessToken(token).build();
-
-        invalidatedTokenRepository.save(invalidatedToken);
+        invalidatedTokenService.revoke(token);
         // remove refresh_token in cookies
         ResponseCookie deleteSpringCookie = ResponseCookie
                 .from("refresh_token", null)
@@ -241,9 +228,8 @@ public class AuthenticationService {
 
     private SignedJWT verifyToken(String token, boolean isRefresh)
             throws JOSEException, ParseException {
-        JWSVerifier verifier = new MACVerifier(SIGNER_KEY_REFRESH.getBytes());
-
         SignedJWT signedJWT = SignedJWT.parse(token);
+        JWSVerifier verifier = jwtKeyMaterial.verifier(signedJWT.getHeader().getKeyID(), isRefresh);
 
         Date expiryTime = (isRefresh)
                 ? new Date(signedJWT.getJWTClaimsSet().getIssueTime()
@@ -251,10 +237,9 @@ public class AuthenticationService {
                         .toEpochMilli())
                 : signedJWT.getJWTClaimsSet().getExpirationTime();
 
-        var verified = signedJWT.verify(verifier);
+        var verified = verifier != null && signedJWT.verify(verifier);
 
         System.out.println("Token: " + token);
-        System.out.println("Signer Key Refresh: " + SIGNER_KEY_REFRESH);
         System.out.println("Algorithm: " + signedJWT.getHeader().getAlgorithm());
         System.out.println("Verified: " + verified);
 
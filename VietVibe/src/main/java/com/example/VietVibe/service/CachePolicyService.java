@@ -0,0 +1,49 @@
+package com.example.VietVibe.service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache-Control cho file trong thư mục upload theo từng folder, cấu hình dạng
+ * "folder:maxAgeGiây,..." (http-cache.folders). Folder không cấu hình dùng
+ * no-cache: trình duyệt vẫn giữ bản sao nhưng hỏi lại bằng ETag và nhận 304.
+ */
+@Service
+@Slf4j
+public class CachePolicyService {
+    @Value("${http-cache.folders:}")
+    private String folders;
+
+    private final Map<String, CacheControl> policies = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        for (String spec : folders.split(",")) {
+            String[] parts = spec.trim().split(":");
+            if (parts.length != 2) {
+                continue;
+            }
+            long maxAge = Long.parseLong(parts[1].trim());
+            policies.put(parts[0].trim(), maxAge > 0
+                    ? CacheControl.maxAge(Duration.ofSeconds(maxAge)).cachePublic()
+                    : CacheControl.noCache());
+        }
+        log.info("HTTP cache policies: {}", policies.keySet());
+    }
+
+    public Map<String, CacheControl> folderPolicies() {
+        return Map.copyOf(policies);
+    }
+
+    public CacheControl forFolder(String folder) {
+        return policies.getOrDefault(folder, CacheControl.noCache());
+    }
+}
@@ -0,0 +1,356 @@
+package com.example.VietVibe.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.VietVibe.dto.request.UploadInitRequest;
+import com.example.VietVibe.dto.response.UploadSessionResponse;
+import com.example.VietVibe.exception.AppException;
+import com.example.VietVibe.exception.ErrorCode;
+import com.example.VietVibe.util.SecurityUtil;
+
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Upload nhiều phần, tiếp tục được khi rớt mạng: init -> PUT từng chunk (song
+ * song, thứ tự bất kỳ) -> complete.
+ *
+ * Khi init, file .part được cấp phát đủ kích thước ngay trong thư mục đích.
+ * Mỗi chunk được ghi thẳng từ body request vào đúng vị trí bằng ghi theo
+ * position của FileChannel (an toàn khi nhiều luồng cùng ghi), đồng thời tính
+ * SHA-256 để so với checksum client gửi. Complete chỉ đổi tên .part thành file
+ * thật nên không có lần copy nào.
+ *
+ * Phiên upload giữ trong bộ nhớ; hết hạn (upload.chunked.session-ttl-ms) thì
+ * bị huỷ cùng file .part. Khởi động lại server thì client phải init lại.
+ * Mỗi phiên thuộc về người dùng đã init nó; số phiên mỗi người, tổng số phiên
+ * và tổng dung lượng đã cấp phát đều có giới hạn vì file .part chiếm đĩa
+ * ngay từ lúc init.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class ChunkedUploadService {
+    private static final int MIN_CHUNK_SIZE = 256 * 1024;
+    private static final int MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+    private static final int COPY_BUFFER_SIZE = 256 * 1024;
+    private static final Pattern SAFE_FOLDER = Pattern.compile("[A-Za-z0-9_-]+");
+
+    FileService fileService;
+
+    Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+    // tổng kích thước .part của các phiên đang mở, đọc/ghi khi giữ khoá của service
+    @NonFinal
+    long reservedBytes;
+
+    @Value("${upload.chunked.chunk-size:8388608}")
+    @NonFinal
+    int defaultChunkSize;
+
+    @Value("${upload.chunked.max-size:4294967296}")
+    @NonFinal
+    long maxSize;
+
+    @Value("${upload.chunked.session-ttl-ms:86400000}")
+    @NonFinal
+    long sessionTtlMs;
+
+    @Value("${upload.chunked.max-sessions:50}")
+    @NonFinal
+    int maxSessions;
+
+    @Value("${upload.chunked.max-sessions-per-user:3}")
+    @NonFinal
+    int maxSessionsPerUser;
+
+    @Value("${upload.chunked.max-reserved-bytes:21474836480}")
+    @NonFinal
+    long maxReservedBytes;
+
+    public UploadSessionResponse init(UploadInitRequest request) throws IOException, URISyntaxException {
+        if (!FileService.isAllowedVideo(request.getFileName()) || request.getFileName().contains("/")
+                || request.getFileName().contains("\\")) {
+            throw new AppException(ErrorCode.INVALID_FILE_TYPE);
+        }
+        if (request.getFolder() == null || !SAFE_FOLDER.matcher(request.getFolder()).matches()) {
+            throw new AppException(ErrorCode.FILE_NOT_EXISTED);
+        }
+        if (request.getSize() <= 0 || request.getSize() > maxSize) {
+            throw new AppException(ErrorCode.INVALID_UPLOAD_SIZE);
+        }
+        int chunkSize = request.getChunkSize() == null ? defaultChunkSize
+                : Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, request.getChunkSize()));
+        String owner = SecurityUtil.getCurrentUserLogin().orElse("");
+
+        fileService.createDirectory(fileService.getBaseURI() + request.getFolder());
+        String fileName = fileService.uniqueName(request.getFileName());
+        Path target = fileService.resolve(request.getFolder(), fileName);
+        Path part = target.resolveSibling(fileName + ".part");
+        UploadSession session = new UploadSession(UUID.randomUUID().toString(), owner, request.getFolder(),
+                fileName, request.getSize(), chunkSize, part, target);
+        reserve(session);
+
+        try {
+            // cấp phát trước (sparse trên đa số hệ file) để các chunk ghi đúng vị trí
+            try (RandomAccessFile file = new RandomAccessFile(part.toFile(), "rw")) {
+                file.setLength(request.getSize());
+            }
+            session.channel = FileChannel.open(part, StandardOpenOption.WRITE);
+        } catch (IOException | RuntimeException e) {
+            sessions.remove(session.id);
+            discard(session);
+            throw e;
+        }
+        log.info("Chunked upload {} started: {} ({} bytes, {} chunks)", session.id, fileName, session.size,
+                session.totalChunks);
+        return toResponse(session);
+    }
+
+    public UploadSessionResponse status(String uploadId) {
+        return toResponse(session(uploadId));
+    }
+
+    public UploadSessionResponse writeChunk(String uploadId, int index, String sha256, InputStream body)
+            throws IOException {
+        UploadSession session = session(uploadId);
+        if (index < 0 || index >= session.totalChunks) {
+            throw new AppException(ErrorCode.INVALID_CHUNK);
+        }
+        if (session.closed) {
+            throw new AppException(ErrorCode.UPLOAD_CLOSED);
+        }
+        long position = (long) index * session.chunkSize;
+        long expected = Math.min(session.chunkSize, session.size - position);
+        // ghi đè tại chỗ: bỏ đánh dấu trước để complete không ghép chunk đang ghi dở/hỏng
+        session.clearReceived(index);
+
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+        long written = 0;
+        int n;
+        while ((n = body.read(buffer.array(), 0, buffer.capacity())) != -1) {
+            if (written + n > expected) {
+                throw new AppException(ErrorCode.INVALID_CHUNK);
+            }
+            digest.update(buffer.array(), 0, n);
+            buffer.position(0).limit(n);
+            try {
+                while (buffer.hasRemaining()) {
+                    written += session.channel.write(buffer, position + written);
+                }
+            } catch (ClosedChannelException e) {
+                // complete/abort/hết hạn đóng channel trong lúc chunk đang ghi
+                throw new AppException(ErrorCode.UPLOAD_CLOSED);
+            }
+            buffer.clear();
+        }
+        if (written != expected) {
+            throw new AppException(ErrorCode.INVALID_CHUNK);
+        }
+        if (sha256 != null && !sha256.equalsIgnoreCase(HexFormat.of().formatHex(digest.digest()))) {
+            // chunk không được đánh dấu, client gửi lại là ghi đè đúng vị trí
+            throw new AppException(ErrorCode.CHUNK_CHECKSUM_MISMATCH);
+        }
+
+        session.markReceived(index);
+        return toResponse(session);
+    }
+
+    // Trả về tên file cuối cùng trong folder
+    public String complete(String uploadId) throws IOException {
+        UploadSession session = session(uploadId);
+        synchronized (session) {
+            if (session.closed) {
+                throw new AppException(ErrorCode.UPLOAD_CLOSED);
+            }
+            if (session.missing().size() > 0) {
+                throw new AppException(ErrorCode.UPLOAD_INCOMPLETE);
+            }
+            sessions.remove(uploadId);
+            session.closed = true;
+            release(session);
+            session.channel.force(false);
+            session.channel.close();
+            Files.move(session.part, session.target, StandardCopyOption.ATOMIC_MOVE);
+        }
+        log.info("Chunked upload {} completed: {}", uploadId, session.fileName);
+        return session.fileName;
+    }
+
+    public String folderOf(String uploadId) {
+        return session(uploadId).folder;
+    }
+
+    public void abort(String uploadId) {
+        UploadSession session = session(uploadId);
+        sessions.remove(uploadId, session);
+        discard(session);
+    }
+
+    @Scheduled(fixedDelayString = "${upload.chunked.cleanup-interval-ms:600000}")
+    public void expireSessions() {
+        long cutoff = System.currentTimeMillis() - sessionTtlMs;
+        sessions.values().removeIf(session -> {
+            if (session.lastActivity >= cutoff) {
+                return false;
+            }
+            log.info("Chunked upload {} expired", session.id);
+            discard(session);
+            return true;
+        });
+    }
+
+    @PreDestroy
+    void closeChannels() {
+        sessions.values().forEach(session -> {
+            try {
+                if (session.channel != null) {
+                    session.channel.close();
+                }
+            } catch (IOException e) {
+                log.warn("Failed to close upload {}: {}", session.id, e.getMessage());
+            }
+        });
+    }
+
+    // Kiểm tra giới hạn và ghi nhận phiên trong cùng một bước để init song song không vượt quá
+    private synchronized void reserve(UploadSession session) {
+        long mine = sessions.values().stream().filter(s -> s.owner.equals(session.owner)).count();
+        if (sessions.size() >= maxSessions || mine >= maxSessionsPerUser
+                || reservedBytes + session.size > maxReservedBytes) {
+            throw new AppException(ErrorCode.TOO_MANY_UPLOADS);
+        }
+        reservedBytes += session.size;
+        sessions.put(session.id, session);
+    }
+
+    private synchronized void release(UploadSession session) {
+        reservedBytes -= session.size;
+    }
+
+    private void discard(UploadSession session) {
+        synchronized (session) {
+            if (session.closed) {
+                return;
+            }
+            session.closed = true;
+        }
+        release(session);
+        try {
+            if (session.channel != null) {
+                session.channel.close();
+            }
+            Files.deleteIfExists(session.part);
+        } catch (IOException e) {
+            log.warn("Failed to discard upload {}: {}", session.id, e.getMessage());
+        }
+    }
+
+    private UploadSession session(String uploadId) {
+        UploadSession session = sessions.get(uploadId);
+        // phiên của người khác coi như không tồn tại
+        if (session == null || !session.owner.equals(SecurityUtil.getCurrentUserLogin().orElse(""))) {
+            throw new AppException(ErrorCode.UPLOAD_NOT_EXISTED);
+        }
+        session.lastActivity = System.currentTimeMillis();
+        return session;
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private UploadSessionResponse toResponse(UploadSession session) {
+        List<Integer> missing = session.missing();
+        return UploadSessionResponse.builder()
+                .uploadId(session.id)
+                .fileName(session.fileName)
+                .folder(session.folder)
+                .size(session.size)
+                .chunkSize(session.chunkSize)
+                .totalChunks(session.totalChunks)
+                .receivedChunks(session.totalChunks - missing.size())
+                .missingChunks(missing)
+                .build();
+    }
+
+    private static final class UploadSession {
+        final String id;
+        final String owner;
+        final String folder;
+        final String fileName;
+        final long size;
+        final int chunkSize;
+        final int totalChunks;
+        final Path part;
+        final Path target;
+        final BitSet received;
+        volatile FileChannel channel;
+        // đã complete/abort/hết hạn: channel đã hoặc sắp bị đóng
+        volatile boolean closed;
+        volatile long lastActivity = System.currentTimeMillis();
+
+        UploadSession(String id, String owner, String folder, String fileName, long size, int chunkSize, Path part,
+                Path target) {
+            this.id = id;
+            this.owner = owner;
+            this.folder = folder;
+            this.fileName = fileName;
+            this.size = size;
+            this.chunkSize = chunkSize;
+            this.totalChunks = (int) ((size + chunkSize - 1) / chunkSize);
+            this.part = part;
+            this.target = target;
+            this.received = new BitSet(totalChunks);
+        }
+
+        synchronized void markReceived(int index) {
+            received.set(index);
+        }
+
+        synchronized void clearReceived(int index) {
+            received.clear(index);
+        }
+
+        synchronized List<Integer> missing() {
+            List<Integer> missing = new ArrayList<>();
+            for (int i = received.nextClearBit(0); i < totalChunks; i = received.nextClearBit(i + 1)) {
+                missing.add(i);
+            }
+            return missing;
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.example.VietVibe.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.VietVibe.entity.StoredFile;
+import com.example.VietVibe.repository.StoredFileRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * SHA-256 của file trong thư mục upload, dùng làm strong ETag.
+ *
+ * File lưu qua kho nội dung đã có sẵn hash trong stored_files; file HLS và
+ * thumbnail được băm ngay trong media job (precompute), file cũ được lượt
+ * backfill định kỳ băm dần. Luồng request không bao giờ tự băm: chưa có hash
+ * thì trả về không ETag và xếp file vào hàng băm nền, mỗi file chỉ một tác vụ
+ * dù nhiều request cùng hỏi. Kết quả giữ trong bộ nhớ và ghi thêm vào file
+ * sidecar upload/.cas/etag-index (sha, size, lastModified, đường dẫn) nên khởi
+ * động lại không phải băm lại. Một dòng chỉ còn hợp lệ khi size và
+ * lastModified của file vẫn khớp.
+ */
+@Service
+@Slf4j
+public class ContentHashService {
+    private static final String INDEX_FILE = ".cas/etag-index";
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int QUEUE_CAPACITY = 10_000;
+
+    @Value("${upload.file.uri}")
+    private String baseURI;
+
+    private final StoredFileRepository storedFileRepository;
+
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+    // đường dẫn -> tác vụ băm đang chạy, để các lời gọi cùng file dùng chung một lần đọc
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+    private int appended;
+
+    public ContentHashService(StoredFileRepository storedFileRepository) {
+        this.storedFileRepository = storedFileRepository;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                r -> {
+                    Thread t = new Thread(r, "content-hash");
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PostConstruct
+    public void load() {
+        Path indexFile = root().resolve(INDEX_FILE);
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+        try {
+            List<String> lines = Files.readAllLines(indexFile, StandardCharsets.UTF_8);
+            for (String line : lines) {
+                String[] parts = line.split("\t", 4);
+                if (parts.length == 4) {
+                    // dòng sau ghi đè dòng trước của cùng đường dẫn
+                    index.put(parts[3], new Entry(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2])));
+                }
+            }
+            appended = lines.size() - index.size();
+            log.info("Loaded {} content hashes from {}", index.size(), indexFile);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable hash index {}: {}", indexFile, e.getMessage());
+        }
+    }
+
+    /**
+     * "\"<sha256>\"" của file nếu hash đã biết, null nếu chưa (file được xếp
+     * vào hàng băm nền) hoặc file nằm ngoài thư mục upload. Không đọc nội dung
+     * file trên luồng gọi.
+     */
+    public String strongETag(Path file) throws IOException {
+        Target target = target(file);
+        if (target == null) {
+            return null;
+        }
+        String sha256 = known(target);
+        if (sha256 == null) {
+            schedule(target);
+            return null;
+        }
+        return "\"" + sha256 + "\"";
+    }
+
+    // Băm trên luồng gọi nếu chưa có; nhiều lời gọi cùng file chờ chung một lần băm
+    public String sha256(Path file) throws IOException {
+        Target target = target(file);
+        if (target == null) {
+            return null;
+        }
+        String sha256 = known(target);
+        if (sha256 != null) {
+            return sha256;
+        }
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> running = inFlight.putIfAbsent(target.key(), mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+            }
+        }
+        try {
+            sha256 = compute(target);
+            mine.complete(sha256);
+            return sha256;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(target.key(), mine);
+        }
+    }
+
+    // Băm trước mọi file dưới path (file hoặc thư mục), dùng trong media job
+    public void precompute(Path path) {
+        try (Stream<Path> files = Files.walk(path)) {
+            files.filter(Files::isRegularFile).forEach(file -> {
+                try {
+                    sha256(file);
+                } catch (IOException e) {
+                    log.debug("Skipping hash of {}: {}", file, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Failed to precompute hashes under {}: {}", path, e.getMessage());
+        }
+    }
+
+    // File cũ (trước khi có kho nội dung/ETag) được băm dần trên luồng nền
+    @Scheduled(initialDelayString = "${http-cache.hash-backfill-delay-ms:60000}",
+            fixedDelayString = "${http-cache.hash-backfill-interval-ms:3600000}")
+    public void backfill() {
+        Path root = root();
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        int scheduled = 0;
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (!Files.isRegularFile(file) || hidden(root.relativize(file))) {
+                    continue;
+                }
+                Target target = target(file);
+                if (target != null && known(target) == null && schedule(target)) {
+                    scheduled++;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Hash backfill stopped early: {}", e.getMessage());
+        }
+        if (scheduled > 0) {
+            log.info("Hash backfill queued {} files", scheduled);
+        }
+    }
+
+    // Viết lại sidecar chỉ với các dòng còn dùng
+    @PreDestroy
+    public void compact() {
+        // dừng băm nền trước để không còn ai ghi sidecar trong lúc viết lại
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rewrite();
+    }
+
+    private synchronized void rewrite() {
+        if (appended == 0) {
+            return;
+        }
+        Path indexFile = root().resolve(INDEX_FILE);
+        Path temp = indexFile.resolveSibling("etag-index.tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Entry> e : index.entrySet()) {
+                writer.write(line(e.getKey(), e.getValue()));
+            }
+        } catch (IOException e) {
+            log.warn("Failed to compact hash index: {}", e.getMessage());
+            return;
+        }
+        try {
+            Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            appended = 0;
+        } catch (IOException e) {
+            log.warn("Failed to replace hash index: {}", e.getMessage());
+        }
+    }
+
+    private Target target(Path file) throws IOException {
+        Path root = root();
+        Path normalized = file.toAbsolutePath().normalize();
+        if (!normalized.startsWith(root)) {
+            return null;
+        }
+        String key = root.relativize(normalized).toString().replace('\\', '/');
+        BasicFileAttributes attrs = Files.readAttributes(normalized, BasicFileAttributes.class);
+        return new Target(normalized, key, attrs.size(), attrs.lastModifiedTime().toMillis());
+    }
+
+    // Hash từ index hoặc stored_files, null nếu phải đọc file mới có
+    private String known(Target target) {
+        Entry entry = index.get(target.key());
+        if (entry != null && entry.size() == target.size() && entry.lastModified() == target.lastModified()) {
+            return entry.sha256();
+        }
+        String sha256 = storedHash(target.key(), target.size()).orElse(null);
+        if (sha256 != null) {
+            remember(target, sha256);
+        }
+        return sha256;
+    }
+
+    private String compute(Target target) throws IOException {
+        String sha256 = hash(target.path());
+        remember(target, sha256);
+        return sha256;
+    }
+
+    private void remember(Target target, String sha256) {
+        Entry entry = new Entry(sha256, target.size(), target.lastModified());
+        index.put(target.key(), entry);
+        append(target.key(), entry);
+    }
+
+    // false nếu file đã đang được băm hoặc hàng đợi đầy (lần sau hỏi lại)
+    private boolean schedule(Target target) {
+        CompletableFuture<String> task = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(target.key(), task) != null) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    task.complete(compute(target));
+                } catch (IOException | RuntimeException e) {
+                    log.debug("Failed to hash {}: {}", target.key(), e.getMessage());
+                    task.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(target.key(), task);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(target.key(), task);
+            task.cancel(false);
+            return false;
+        }
+    }
+
+    private static boolean hidden(Path relative) {
+        for (Path segment : relative) {
+            if (segment.toString().startsWith(".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Optional<String> storedHash(String key, long size) {
+        int slash = key.indexOf('/');
+        if (slash < 0 || key.indexOf('/', slash + 1) >= 0) {
+            return Optional.empty();
+        }
+        return storedFileRepository.findByFolderAndFileName(key.substring(0, slash), key.substring(slash + 1))
+                .filter(stored -> stored.getSize() == size)
+                .map(StoredFile::getSha256);
+    }
+
+    private synchronized void append(String key, Entry entry) {
+        Path indexFile = root().resolve(INDEX_FILE);
+        try {
+            Files.createDirectories(indexFile.getParent());
+            Files.writeString(indexFile, line(key, entry), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            appended++;
+        } catch (IOException e) {
+            // chỉ mất phần lưu bền, hash vẫn nằm trong bộ nhớ
+            log.warn("Failed to append to hash index: {}", e.getMessage());
+        }
+    }
+
+    private String line(String key, Entry entry) {
+        return entry.sha256() + "\t" + entry.size() + "\t" + entry.lastModified() + "\t" + key + "\n";
+    }
+
+    private String hash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private Path root() {
+        try {
+            return Paths.get(new URI(baseURI)).toAbsolutePath().normalize();
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Invalid upload.file.uri " + baseURI, e);
+        }
+    }
+
+    private record Entry(String sha256, long size, long lastModified) {
+    }
+
+    private record Target(Path path, String key, long size, long lastModified) {
+    }
+}
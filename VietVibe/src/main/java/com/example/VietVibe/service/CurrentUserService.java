@@ -0,0 +1,164 @@
+package com.example.VietVibe.service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.example.VietVibe.entity.User;
+import com.example.VietVibe.repository.UserRepository;
+import com.example.VietVibe.util.SecurityUtil;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * id/role của người dùng hiện tại mà không phải đọc bảng users.
+ *
+ * Access token đã mang claim user (id, username, role) và đã được xác thực
+ * chữ ký, nên phần lớn request lấy thẳng từ đó. Khi UserService sửa hoặc xoá
+ * người dùng, thời điểm đổi được ghi lại; token phát hành trước mốc đó không
+ * còn được tin và phải tra DB. Mốc này chỉ nằm trong bộ nhớ, nên token phát
+ * hành trước khi instance khởi động cũng luôn tra DB: sau restart, token của
+ * người đã bị sửa/xoá không được tin lại. Kết quả tra DB giữ trong cache dùng
+ * chung có TTL ngắn, và mỗi request chỉ tính một lần (lưu trong request
+ * attribute). Việc huỷ cache chỉ có hiệu lực trong instance hiện tại.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class CurrentUserService {
+    private static final String REQUEST_ATTRIBUTE = CurrentUserService.class.getName() + ".snapshot";
+
+    UserRepository userRepository;
+
+    Map<String, Cached> cache = new ConcurrentHashMap<>();
+    // username -> lần sửa/xoá gần nhất; claim trong token cũ hơn mốc này bị bỏ qua
+    Map<String, Instant> changedAt = new ConcurrentHashMap<>();
+    // changedAt chỉ đầy đủ cho các thay đổi từ lúc này
+    Instant startedAt = Instant.now();
+
+    @Value("${auth.user-cache.ttl-seconds:60}")
+    @NonFinal
+    long ttlSeconds;
+
+    @Value("${auth.user-cache.max-entries:10000}")
+    @NonFinal
+    int maxEntries;
+
+    @Value("${auth.jwt.access-token-validity-in-seconds}")
+    @NonFinal
+    long accessTokenValiditySeconds;
+
+    public record UserSnapshot(String id, String username, String role) {
+    }
+
+    public Optional<UserSnapshot> current() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null
+                && request.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof UserSnapshot s) {
+            return Optional.of(s);
+        }
+        Optional<UserSnapshot> snapshot = resolve();
+        if (request != null && snapshot.isPresent()) {
+            request.setAttribute(REQUEST_ATTRIBUTE, snapshot.get(), RequestAttributes.SCOPE_REQUEST);
+        }
+        return snapshot;
+    }
+
+    public Optional<UserSnapshot> findByUsername(String username) {
+        Instant now = Instant.now();
+        Cached cached = cache.get(username);
+        if (cached != null && now.isBefore(cached.expiresAt())) {
+            return Optional.of(cached.snapshot());
+        }
+        Optional<UserSnapshot> snapshot = userRepository.findByUsername(username)
+                .map(user -> new UserSnapshot(user.getId(), user.getUsername(), user.getRole()));
+        Instant changed = changedAt.get(username);
+        // bị sửa/xoá trong lúc đang đọc: không cache bản có thể đã cũ
+        if (snapshot.isPresent() && (changed == null || changed.isBefore(now))) {
+            remember(username, new Cached(snapshot.get(), now.plusSeconds(ttlSeconds)), now);
+        }
+        return snapshot;
+    }
+
+    // Gọi sau khi sửa/xoá người dùng (cả username cũ lẫn mới khi đổi tên)
+    public void evict(String username) {
+        if (username == null) {
+            return;
+        }
+        changedAt.put(username, Instant.now());
+        cache.remove(username);
+    }
+
+    public void evict(User user) {
+        evict(user.getUsername());
+    }
+
+    // Mốc sửa/xoá chỉ cần giữ tới khi mọi access token phát hành trước đó hết hạn
+    @Scheduled(fixedDelayString = "${auth.user-cache.prune-interval-ms:600000}")
+    public void prune() {
+        Instant now = Instant.now();
+        cache.values().removeIf(cached -> !now.isBefore(cached.expiresAt()));
+        Instant oldest = now.minusSeconds(accessTokenValiditySeconds);
+        changedAt.values().removeIf(at -> at.isBefore(oldest));
+    }
+
+    private Optional<UserSnapshot> resolve() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof Jwt jwt) {
+            UserSnapshot fromToken = fromClaims(jwt);
+            if (fromToken != null) {
+                return Optional.of(fromToken);
+            }
+        }
+        return SecurityUtil.getCurrentUserLogin().flatMap(this::findByUsername);
+    }
+
+    private UserSnapshot fromClaims(Jwt jwt) {
+        if (!(jwt.getClaim("user") instanceof Map<?, ?> user)) {
+            return null;
+        }
+        // claim do Nimbus ghi theo tên field (id); chấp nhận cả _id như JSON trả về client
+        Object id = user.get("id") != null ? user.get("id") : user.get("_id");
+        Object username = user.get("username");
+        if (id == null || username == null || !username.equals(jwt.getSubject())) {
+            return null;
+        }
+        if (jwt.getIssuedAt() == null || !jwt.getIssuedAt().isAfter(startedAt)) {
+            return null;
+        }
+        Instant changed = changedAt.get(jwt.getSubject());
+        if (changed != null && !jwt.getIssuedAt().isAfter(changed)) {
+            return null;
+        }
+        Object role = user.get("role");
+        return new UserSnapshot(id.toString(), username.toString(), role == null ? null : role.toString());
+    }
+
+    private void remember(String username, Cached entry, Instant now) {
+        if (cache.size() >= maxEntries) {
+            cache.values().removeIf(cached -> !now.isBefore(cached.expiresAt()));
+            if (cache.size() >= maxEntries) {
+                cache.clear();
+            }
+        }
+        cache.put(username, entry);
+    }
+
+    private record Cached(UserSnapshot snapshot, Instant expiresAt) {
+    }
+}
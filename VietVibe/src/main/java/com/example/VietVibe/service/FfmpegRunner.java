@@ -0,0 +1,62 @@
+package com.example.VietVibe.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import ws.schild.jave.process.ProcessWrapper;
+import ws.schild.jave.process.ffmpeg.DefaultFFMPEGLocator;
+
+/**
+ * Chạy trực tiếp ffmpeg đi kèm JAVE cho các lệnh Encoder không diễn tả được
+ * (HLS, ảnh poster, sprite thumbnail).
+ */
+final class FfmpegRunner {
+    private static final int MAX_LOG_CHARS = 2000;
+
+    private FfmpegRunner() {
+    }
+
+    static void run(String task, String... args) throws IOException {
+        try (ProcessWrapper ffmpeg = new DefaultFFMPEGLocator().createExecutor()) {
+            for (String arg : args) {
+                ffmpeg.addArgument(arg);
+            }
+            ffmpeg.execute();
+            String stderr = drain(ffmpeg.getErrorStream());
+            int exit = ffmpeg.getProcessExitCode();
+            if (exit != 0) {
+                throw new IOException("ffmpeg exited with " + exit + " for " + task + ": " + stderr);
+            }
+        }
+    }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    // Đọc hết stderr (để ffmpeg không bị chặn), chỉ giữ phần cuối cho thông báo lỗi
+    private static String drain(InputStream stream) throws IOException {
+        StringBuilder tail = new StringBuilder();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = stream.read(buffer)) != -1) {
+            tail.append(new String(buffer, 0, n, StandardCharsets.UTF_8));
+            if (tail.length() > MAX_LOG_CHARS * 2) {
+                tail.delete(0, tail.length() - MAX_LOG_CHARS);
+            }
+        }
+        return tail.length() > MAX_LOG_CHARS ? tail.substring(tail.length() - MAX_LOG_CHARS) : tail.toString();
+    }
+}
@@ -2,11 +2,23 @@ package com.example.VietVibe.service;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.InputStreamResource;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.VietVibe.entity.StoredFile;
+import com.example.VietVibe.exception.AppException;
+import com.example.VietVibe.exception.ErrorCode;
+import com.example.VietVibe.repository.StoredFileRepository;
+import com.example.VietVibe.service.StorageBackend.StoredBlob;
+import com.example.VietVibe.util.TransactionHooks;
+
+import lombok.extern.slf4j.Slf4j;
+
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.Files;
@@ -16,12 +28,48 @@ import java.io.InputStream;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
 
 @Service
+@Slf4j
 public class FileService {
+    private static final List<String> VIDEO_EXTENSIONS = Arrays.asList("mp4", "avi", "mov", "wmv", "mkv", "flv",
+            "webm", "3gp");
+
     @Value("${upload.file.uri}")
     private String baseURI;
 
+    // folder mà mọi tham chiếu đều qua retain/release (video của lesson); folder khác không bao giờ bị dọn
+    @Value("${upload.ref-counted-folders:video}")
+    private List<String> refCountedFolders = List.of();
+
+    @Value("${upload.orphan-grace-ms:86400000}")
+    private long orphanGraceMs;
+
+    private final StorageBackend storageBackend;
+    private final StoredFileRepository storedFileRepository;
+
+    public FileService(StorageBackend storageBackend, StoredFileRepository storedFileRepository) {
+        this.storageBackend = storageBackend;
+        this.storedFileRepository = storedFileRepository;
+    }
+
+    public static boolean isAllowedVideo(String fileName) {
+        return fileName != null && VIDEO_EXTENSIONS.stream().anyMatch(item -> fileName.toLowerCase().endsWith(item));
+    }
+
+    public String getBaseURI() {
+        return baseURI;
+    }
+
+    // create unique filename
+    public String uniqueName(String originalFilename) {
+        return System.currentTimeMillis() + "-" + originalFilename;
+    }
+
     public void createDirectory(String folder) throws URISyntaxException {
         URI uri = new URI(folder);
         Path path = Paths.get(uri);
@@ -38,17 +86,131 @@ public class FileService {
         }
     }
 
+    // Lưu theo nội dung: upload trùng nội dung trong cùng folder trả về tên file đã có
+    @Transactional
     public String store(MultipartFile file, String folder)
             throws URISyntaxException, IOException {
-        // create unique filename
-        String finalName = System.currentTimeMillis() + "-" + file.getOriginalFilename();
-        URI uri = new URI(baseURI + folder + "/" + finalName);
-        Path path = Paths.get(uri);
+        StoredBlob blob;
         try (InputStream inputStream = file.getInputStream()) {
-            Files.copy(inputStream, path,
-                    StandardCopyOption.REPLACE_EXISTING);
+            blob = storageBackend.write(inputStream);
+        }
+        return register(blob, folder, uniqueName(file.getOriginalFilename()));
+    }
+
+    // Đưa file đã nằm sẵn ở folder/fileName (upload nhiều phần) vào kho nội dung
+    @Transactional
+    public String adopt(String folder, String fileName) throws URISyntaxException, IOException {
+        StoredBlob blob = storageBackend.ingest(resolve(folder, fileName));
+        return register(blob, folder, fileName);
+    }
+
+    // Một lesson bắt đầu trỏ tới file (tên không nằm trong kho nội dung thì bỏ qua)
+    @Transactional
+    public void retain(String folder, String fileName) {
+        if (fileName == null || fileName.isBlank()) {
+            return;
+        }
+        storedFileRepository.findByFolderAndFileName(folder, fileName)
+                .ifPresent(stored -> storedFileRepository.adjustRefCount(stored.getId(), 1, Instant.now()));
+    }
+
+    // Bỏ một tham chiếu; tên không còn ai trỏ tới được sweepUnreferenced dọn sau thời gian ân hạn
+    @Transactional
+    public void release(String folder, String fileName) {
+        if (fileName == null || fileName.isBlank()) {
+            return;
+        }
+        storedFileRepository.findByFolderAndFileName(folder, fileName)
+                .ifPresent(stored -> storedFileRepository.adjustRefCount(stored.getId(), -1, Instant.now()));
+    }
+
+    /**
+     * Xoá tên file không còn lesson nào trỏ tới (upload rồi bỏ, video đã bị
+     * thay hoặc lesson đã xoá) trong các folder đếm tham chiếu, khi đã quá
+     * thời gian ân hạn kể từ lần dùng cuối; blob không còn tên nào thì xoá
+     * luôn. Blob đang được một upload giữ (chưa commit) không bị xoá.
+     */
+    @Scheduled(initialDelayString = "${upload.sweep-interval-ms:3600000}",
+            fixedDelayString = "${upload.sweep-interval-ms:3600000}")
+    public void sweepUnreferenced() {
+        Instant cutoff = Instant.now().minusMillis(orphanGraceMs);
+        List<StoredFile> orphans = storedFileRepository.findByFolderInAndRefCountLessThanEqualAndLastUsedAtBefore(
+                refCountedFolders, 0, cutoff);
+        int removed = 0;
+        for (StoredFile orphan : orphans) {
+            // xoá từng dòng theo điều kiện: lesson vừa gắn vào (refCount > 0) hay vừa upload lại thì giữ
+            if (storedFileRepository.deleteIfUnreferenced(orphan.getId(), cutoff) == 0) {
+                continue;
+            }
+            removed++;
+            try {
+                storageBackend.unlink(orphan.getFolder(), orphan.getFileName());
+                if (!storedFileRepository.existsBySha256(orphan.getSha256())) {
+                    storageBackend.deleteBlob(orphan.getSha256());
+                }
+            } catch (IOException e) {
+                log.warn("Failed to remove {}/{}: {}", orphan.getFolder(), orphan.getFileName(), e.getMessage());
+            }
+        }
+        if (removed > 0) {
+            log.info("Removed {} unreferenced files", removed);
+        }
+    }
+
+    // SHA-256 nội dung nếu file được lưu qua kho nội dung
+    public Optional<String> contentHash(String folder, String fileName) {
+        return storedFileRepository.findByFolderAndFileName(folder, fileName).map(StoredFile::getSha256);
+    }
+
+    private String register(StoredBlob blob, String folder, String fileName) throws IOException {
+        // blob được giữ tới hết transaction để sweepUnreferenced không xoá nó trước khi dòng mới commit
+        TransactionHooks.afterCompletion(() -> storageBackend.unpin(blob.sha256()));
+        Optional<StoredFile> existing = storedFileRepository.findFirstBySha256AndFolderOrderByIdAsc(blob.sha256(),
+                folder);
+        if (existing.isPresent()) {
+            // tham chiếu do lesson giữ, upload lại chỉ lùi mốc ân hạn
+            storedFileRepository.touch(existing.get().getId(), Instant.now());
+            log.info("Deduplicated upload into {}/{} ({})", folder, existing.get().getFileName(), blob.sha256());
+            return existing.get().getFileName();
+        }
+        storageBackend.link(blob.sha256(), folder, fileName);
+        storedFileRepository.save(StoredFile.builder()
+                .folder(folder)
+                .fileName(fileName)
+                .sha256(blob.sha256())
+                .size(blob.size())
+                .refCount(0)
+                .build());
+        return fileName;
+    }
+
+    // Đường dẫn vật lý của file trong thư mục upload
+    public Path resolve(String folder, String fileName) throws URISyntaxException {
+        return Paths.get(new URI(baseURI + folder + "/" + fileName));
+    }
+
+    // Như resolve nhưng chặn "../" thoát khỏi thư mục upload và yêu cầu file phải tồn tại
+    public Path resolveExisting(String folder, String fileName) {
+        try {
+            Path root = Paths.get(new URI(baseURI)).normalize();
+            Path path = root.resolve(folder).resolve(fileName).normalize();
+            // không phục vụ .cas, file tạm, index hash
+            if (!path.startsWith(root) || hidden(root.relativize(path)) || !Files.isRegularFile(path)) {
+                throw new AppException(ErrorCode.FILE_NOT_EXISTED);
+            }
+            return path;
+        } catch (URISyntaxException | InvalidPathException e) {
+            throw new AppException(ErrorCode.FILE_NOT_EXISTED);
+        }
+    }
+
+    private static boolean hidden(Path relative) {
+        for (Path segment : relative) {
+            if (segment.toString().startsWith(".")) {
+                return true;
+            }
         }
-        return finalName;
+        return false;
     }
 
     public long getFileLength(String fileName, String folder) throws URISyntaxException {
@@ -0,0 +1,128 @@
+package com.example.VietVibe.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.VietVibe.util.TransactionHooks;
+
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bộ đếm timesPlayed / bestScore của game.
+ *
+ * Thay vì findById + save trên từng lượt chơi (khoá dòng games và mất cập nhật
+ * khi chơi đồng thời), lượt chơi được cộng vào LongAdder và điểm cao nhất vào
+ * LongAccumulator(max) trong bộ nhớ, rồi ghi xuống DB theo lô định kỳ bằng
+ * UPDATE tương đối. Bộ đếm không bao giờ reset; mỗi lần flush chỉ ghi phần
+ * chênh lệch so với lần flush trước nên không mất lượt nào. Cả lô chạy trong
+ * một transaction và mốc đã flush chỉ được dời sau khi commit, nên lô lỗi giữa
+ * chừng được rollback toàn bộ và ghi lại đúng một lần.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class GameCounterService {
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate transactionTemplate;
+
+    Map<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    public void recordPlay(long gameId) {
+        TransactionHooks.afterCommit(() -> counter(gameId).plays.increment());
+    }
+
+    public void recordScore(long gameId, int score) {
+        TransactionHooks.afterCommit(() -> counter(gameId).best.accumulate(score));
+    }
+
+    // Phần chưa flush, cộng vào response để số liệu hiển thị không bị trễ
+    public long pendingPlays(long gameId) {
+        Counter counter = counters.get(gameId);
+        return counter == null ? 0 : counter.plays.sum() - counter.flushedPlays;
+    }
+
+    public int bestScore(long gameId, int persisted) {
+        Counter counter = counters.get(gameId);
+        return counter == null ? persisted : (int) Math.max(persisted, counter.best.get());
+    }
+
+    public void discard(long gameId) {
+        counters.remove(gameId);
+    }
+
+    @Scheduled(fixedDelayString = "${game-counter.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        List<Object[]> playUpdates = new ArrayList<>();
+        List<Object[]> bestUpdates = new ArrayList<>();
+        List<Runnable> playCommits = new ArrayList<>();
+        List<Runnable> bestCommits = new ArrayList<>();
+
+        counters.forEach((gameId, counter) -> {
+            long plays = counter.plays.sum();
+            long playDelta = plays - counter.flushedPlays;
+            if (playDelta > 0) {
+                playUpdates.add(new Object[] { playDelta, gameId });
+                playCommits.add(() -> counter.flushedPlays = plays);
+            }
+            long best = counter.best.get();
+            if (best > counter.flushedBest) {
+                bestUpdates.add(new Object[] { best, gameId });
+                bestCommits.add(() -> counter.flushedBest = best);
+            }
+        });
+
+        if (playUpdates.isEmpty() && bestUpdates.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!playUpdates.isEmpty()) {
+                    jdbcTemplate.batchUpdate("UPDATE games SET times_played = times_played + ? WHERE id = ?",
+                            playUpdates);
+                }
+                if (!bestUpdates.isEmpty()) {
+                    jdbcTemplate.batchUpdate("UPDATE games SET best_score = GREATEST(best_score, ?) WHERE id = ?",
+                            bestUpdates);
+                }
+            });
+            // chỉ tới đây khi đã commit
+            playCommits.forEach(Runnable::run);
+            bestCommits.forEach(Runnable::run);
+        } catch (Exception e) {
+            // giữ nguyên phần chênh lệch, lần flush sau sẽ ghi lại
+            log.warn("Failed to flush game counters: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private Counter counter(long gameId) {
+        return counters.computeIfAbsent(gameId, id -> new Counter());
+    }
+
+    private static final class Counter {
+        final LongAdder plays = new LongAdder();
+        final LongAccumulator best = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        // chỉ được ghi trong flush() (synchronized)
+        volatile long flushedPlays;
+        volatile long flushedBest = Long.MIN_VALUE;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.VietVibe.service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+
+import com.example.VietVibe.dto.request.GameUpdateRequest;
+import com.example.VietVibe.dto.response.GameChangeSetResponse;
+import com.example.VietVibe.entity.Answer;
+import com.example.VietVibe.entity.Game;
+import com.example.VietVibe.entity.Question;
+
+/**
+ * So sánh cây game đang lưu với GameUpdateRequest và chỉ sửa những gì khác.
+ *
+ * Question/answer được khớp theo _id: trùng id thì so từng field và chỉ set
+ * field thay đổi (entity có @DynamicUpdate nên UPDATE chỉ gồm cột đó), không
+ * có id (hoặc id không thuộc game) thì thêm mới, còn lại bị xoá qua orphan
+ * removal. Phần không đổi không sinh câu SQL nào.
+ *
+ * questions/answers = null trong request nghĩa là giữ nguyên.
+ */
+@Service
+public class GameDiffService {
+
+    // Áp diff lên entity đang được quản lý, phải gọi trong transaction
+    public GameChangeSetResponse apply(Game game, GameUpdateRequest request) {
+        GameChangeSetResponse changes = new GameChangeSetResponse();
+
+        if (!Objects.equals(game.getName(), request.getName())) {
+            game.setName(request.getName());
+            changes.setGameUpdated(true);
+        }
+        if (!Objects.equals(game.getDescription(), request.getDescription())) {
+            game.setDescription(request.getDescription());
+            changes.setGameUpdated(true);
+        }
+        if (game.getType() != request.getType()) {
+            game.setType(request.getType());
+            changes.setGameUpdated(true);
+        }
+
+        if (request.getQuestions() != null) {
+            diffQuestions(game, request.getQuestions(), changes);
+            if (game.getTotalQuestion() != game.getQuestions().size()) {
+                game.setTotalQuestion(game.getQuestions().size());
+                changes.setGameUpdated(true);
+            }
+        }
+        return changes;
+    }
+
+    private void diffQuestions(Game game, List<Question> requested, GameChangeSetResponse changes) {
+        Map<Long, Question> existing = new HashMap<>();
+        game.getQuestions().forEach(q -> existing.put(q.getId(), q));
+
+        Set<Long> kept = new HashSet<>();
+        for (Question newQ : requested) {
+            Question oldQ = newQ.getId() == null ? null : existing.get(newQ.getId());
+            if (oldQ == null || !kept.add(oldQ.getId())) {
+                // thêm question mới (kể cả id lạ hoặc trùng lặp trong request)
+                newQ.setId(null);
+                newQ.setGame(game);
+                newQ.getAnswers().forEach(a -> {
+                    a.setId(null);
+                    a.setQuestion(newQ);
+                });
+                game.getQuestions().add(newQ);
+                changes.setQuestionsAdded(changes.getQuestionsAdded() + 1);
+                changes.setAnswersAdded(changes.getAnswersAdded() + newQ.getAnswers().size());
+                continue;
+            }
+
+            boolean updated = false;
+            if (!Objects.equals(oldQ.getContent(), newQ.getContent())) {
+                oldQ.setContent(newQ.getContent());
+                updated = true;
+            }
+            if (!Objects.equals(oldQ.getImageUrl(), newQ.getImageUrl())) {
+                oldQ.setImageUrl(newQ.getImageUrl());
+                updated = true;
+            }
+            if (!Objects.equals(oldQ.getAudioUrl(), newQ.getAudioUrl())) {
+                oldQ.setAudioUrl(newQ.getAudioUrl());
+                updated = true;
+            }
+            if (updated) {
+                changes.setQuestionsUpdated(changes.getQuestionsUpdated() + 1);
+            }
+
+            if (newQ.getAnswers() != null) {
+                diffAnswers(oldQ, newQ.getAnswers(), changes);
+            }
+        }
+
+        // xoá question không còn trong request (answers bị xoá theo cascade)
+        game.getQuestions().removeIf(q -> {
+            boolean removed = q.getId() != null && !kept.contains(q.getId());
+            if (removed) {
+                changes.setQuestionsRemoved(changes.getQuestionsRemoved() + 1);
+                changes.setAnswersRemoved(changes.getAnswersRemoved() + q.getAnswers().size());
+            }
+            return removed;
+        });
+    }
+
+    private void diffAnswers(Question question, List<Answer> requested, GameChangeSetResponse changes) {
+        Map<Long, Answer> existing = new HashMap<>();
+        question.getAnswers().forEach(a -> existing.put(a.getId(), a));
+
+        Set<Long> kept = new HashSet<>();
+        for (Answer newA : requested) {
+            Answer oldA = newA.getId() == null ? null : existing.get(newA.getId());
+            if (oldA == null || !kept.add(oldA.getId())) {
+                newA.setId(null);
+                newA.setQuestion(question);
+                question.getAnswers().add(newA);
+                changes.setAnswersAdded(changes.getAnswersAdded() + 1);
+                continue;
+            }
+
+            boolean updated = false;
+            if (!Objects.equals(oldA.getContent(), newA.getContent())) {
+                oldA.setContent(newA.getContent());
+                updated = true;
+            }
+            if (oldA.isCorrect() != newA.isCorrect()) {
+                oldA.setCorrect(newA.isCorrect());
+                updated = true;
+            }
+            if (!Objects.equals(oldA.getOrderIndex(), newA.getOrderIndex())) {
+                oldA.setOrderIndex(newA.getOrderIndex());
+                updated = true;
+            }
+            if (updated) {
+                changes.setAnswersUpdated(changes.getAnswersUpdated() + 1);
+            }
+        }
+
+        question.getAnswers().removeIf(a -> {
+            boolean removed = a.getId() != null && !kept.contains(a.getId());
+            if (removed) {
+                changes.setAnswersRemoved(changes.getAnswersRemoved() + 1);
+            }
+            return removed;
+        });
+    }
+}
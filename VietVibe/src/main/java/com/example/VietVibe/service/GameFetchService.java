@@ -0,0 +1,59 @@
+package com.example.VietVibe.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+
+import com.example.VietVibe.entity.Game;
+import com.example.VietVibe.repository.GameRepository;
+import com.example.VietVibe.repository.QuestionRepository;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Nạp cây game -> questions -> answers với số câu query cố định.
+ *
+ * Questions và answers đều là List (bag) nên không thể join fetch cùng lúc.
+ * Thay vào đó: (1) lấy trang/đối tượng Game, (2) nạp questions theo danh sách
+ * id game, (3) nạp answers theo cùng danh sách id. Các bước dùng chung
+ * persistence context nên phải được gọi trong một transaction.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class GameFetchService {
+    GameRepository gameRepository;
+    QuestionRepository questionRepository;
+
+    public void fetchQuestionTrees(List<Game> games) {
+        if (games.isEmpty()) {
+            return;
+        }
+        List<Long> ids = games.stream().map(Game::getId).toList();
+        gameRepository.findWithQuestionsByIdIn(ids);
+        questionRepository.findByGameIdIn(ids);
+    }
+
+    // Nạp đủ cây cho danh sách id, trả về theo thứ tự id truyền vào
+    public List<Game> findTreesByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Game> games = new HashMap<>();
+        gameRepository.findWithQuestionsByIdIn(ids).forEach(g -> games.put(g.getId(), g));
+        questionRepository.findByGameIdIn(ids);
+        return ids.stream().map(games::get).filter(Objects::nonNull).toList();
+    }
+
+    public Optional<Game> findTreeById(Long id) {
+        Optional<Game> game = gameRepository.findWithQuestionsById(id);
+        game.ifPresent(g -> questionRepository.findByGameIdIn(List.of(g.getId())));
+        return game;
+    }
+}
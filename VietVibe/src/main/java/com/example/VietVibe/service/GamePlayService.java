@@ -1,26 +1,34 @@
 package com.example.VietVibe.service;
 
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.VietVibe.dto.request.GameRunSubmitRequest;
 import com.example.VietVibe.dto.request.GameSubmitRequest;
+import com.example.VietVibe.dto.request.PointRequest;
+import com.example.VietVibe.dto.request.QuestionAnswerRequest;
 import com.example.VietVibe.dto.response.ApiPagination;
 import com.example.VietVibe.dto.response.PlayGameResponse;
+import com.example.VietVibe.dto.response.PointResponse;
 import com.example.VietVibe.dto.response.QuestionResultResponse;
-import com.example.VietVibe.entity.Answer;
+import com.example.VietVibe.dto.response.SubmitGameResponse;
 import com.example.VietVibe.entity.Game;
-import com.example.VietVibe.entity.Question;
 import com.example.VietVibe.enums.GameType;
 import com.example.VietVibe.exception.AppException;
 import com.example.VietVibe.exception.ErrorCode;
 import com.example.VietVibe.mapper.GameMapper;
 import com.example.VietVibe.repository.GameRepository;
 import com.example.VietVibe.repository.PointRepository;
+import com.example.VietVibe.service.AnswerKeyService.AnswerKey;
+import com.example.VietVibe.service.AnswerKeyService.QuestionKey;
 
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
@@ -33,9 +41,17 @@ public class GamePlayService {
     GameRepository gameRepository;
     PointRepository pointRepository;
     GameMapper gameMapper;
+    AnswerKeyService answerKeyService;
+    GameFetchService gameFetchService;
+    PointService pointService;
+    CurrentUserService currentUserService;
 
+    static final int POINTS_PER_CORRECT_ANSWER = 10;
+
+    @Transactional(readOnly = true)
     public ApiPagination<PlayGameResponse> getAllPlayGame(Specification<Game> spec, Pageable pageable) {
         Page<Game> gamePlay = this.gameRepository.findAll(spec, pageable);
+        gameFetchService.fetchQuestionTrees(gamePlay.getContent());
 
         List<PlayGameResponse> listGame = gamePlay.getContent().stream()
                 .map(gameMapper::toPlayGameResponse)
@@ -51,48 +67,82 @@ public class GamePlayService {
                 .build();
     }
 
+    @Transactional(readOnly = true)
     public PlayGameResponse getPlayGameById(Long id) {
-        Game game = gameRepository.findById(id)
+        Game game = gameFetchService.findTreeById(id)
                 .orElseThrow(() -> new AppException(ErrorCode.GAME_NOT_EXISTED));
         return gameMapper.toPlayGameResponse(game);
     }
 
+    // Chấm cả lượt chơi với một answer key, rồi lưu Point + bộ đếm game trong cùng transaction
+    @Transactional
+    public SubmitGameResponse submitGame(Long gameId, GameRunSubmitRequest request) {
+        AnswerKey key = answerKeyService.get(gameId);
+
+        List<QuestionAnswerRequest> answers = request.getAnswers() != null ? request.getAnswers() : List.of();
+
+        List<QuestionResultResponse> details = new ArrayList<>(answers.size());
+        Set<Long> correctQuestions = new HashSet<>();
+        for (QuestionAnswerRequest answer : answers) {
+            QuestionResultResponse result = grade(key, answer);
+            if (result.isCorrect()) {
+                correctQuestions.add(result.getQuestionId());
+            }
+            details.add(result);
+        }
+
+        int totalQuestions = key.questions().size();
+        int correctCount = correctQuestions.size();
+
+        CurrentUserService.UserSnapshot user = currentUserService.current()
+                .orElseThrow(() -> new AppException(ErrorCode.UNAUTHENTICATED));
+
+        PointRequest pointRequest = new PointRequest();
+        pointRequest.setUserId(user.id());
+        pointRequest.setGameId(gameId);
+        pointRequest.setScore(correctCount * POINTS_PER_CORRECT_ANSWER);
+        pointRequest.setCorrectAnswers(correctCount);
+        pointRequest.setTotalQuestions(totalQuestions);
+        PointResponse point = pointService.addPoint(pointRequest);
+
+        return SubmitGameResponse.builder()
+                .gameId(gameId)
+                .totalQuestions(totalQuestions)
+                .correctCount(correctCount)
+                .accuracy(totalQuestions == 0 ? 0 : (double) correctCount / totalQuestions)
+                .pointId(point.getId())
+                .score(point.getScore())
+                .bonus(point.getBonus())
+                .details(details)
+                .build();
+    }
+
     public QuestionResultResponse submitQuestion(Long gameId, GameSubmitRequest request) {
-        Game game = gameRepository.findById(gameId)
-                .orElseThrow(() -> new AppException(ErrorCode.GAME_NOT_EXISTED));
+        AnswerKey key = answerKeyService.get(gameId);
+        return grade(key, request.getAnswers());
+    }
 
-        Question question = game.getQuestions().stream()
-                .filter(q -> q.getId().equals(request.getAnswers().getQuestionId()))
-                .findFirst()
-                .orElseThrow(() -> new AppException(ErrorCode.QUESTION_NOT_EXISTED));
+    // Chấm một câu dựa trên answer key đã cache, không đụng tới JPA
+    private QuestionResultResponse grade(AnswerKey key, QuestionAnswerRequest answer) {
+        QuestionKey question = key.question(answer.getQuestionId());
 
         boolean isCorrect = false;
         Long correctAnswerId = null;
         List<Long> correctOrder = null;
-        if (game.getType() == GameType.MULTIPLE_CHOICE || game.getType() == GameType.LISTENING_CHOICE) {
-
-            Long selectedAnswerId = request.getAnswers().getAnswerId();
-            // Tìm đáp án đúng trong db
-            correctAnswerId = question.getAnswers().stream()
-                    .filter(ans -> ans.isCorrect())
-                    .findFirst()
-                    .map(ans -> ans.getId())
-                    .orElse(null);
-            isCorrect = selectedAnswerId != null && selectedAnswerId.equals(correctAnswerId);
-        } else if (game.getType() == GameType.SENTENCE_ORDER) {
-            List<Long> userOder = request.getAnswers().getOrderedAnswerIds();
+        if (key.type() == GameType.MULTIPLE_CHOICE || key.type() == GameType.LISTENING_CHOICE) {
+            correctAnswerId = question.correctAnswerId();
+            isCorrect = question.isCorrectChoice(answer.getAnswerId());
+        } else if (key.type() == GameType.SENTENCE_ORDER) {
+            List<Long> userOder = answer.getOrderedAnswerIds();
             if (userOder == null || userOder.isEmpty()) {
                 throw new AppException(ErrorCode.QUESTION_NOT_EXISTED);
             }
-            correctOrder = question.getAnswers().stream()
-                    .sorted(Comparator.comparing(Answer::getOrderIndex))
-                    .map(Answer::getId)
-                    .toList();
-            isCorrect = userOder.equals(correctOrder);
+            correctOrder = question.correctOrderList();
+            isCorrect = question.isCorrectOrder(userOder);
         }
         return QuestionResultResponse.builder()
-                .gameId(game.getId())
-                .questionId(question.getId())
+                .gameId(key.gameId())
+                .questionId(question.questionId())
                 .correct(isCorrect)
                 .correctAnswerId(correctAnswerId)
                 .correctOrder(correctOrder)
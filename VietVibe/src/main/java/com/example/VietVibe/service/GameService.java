@@ -1,10 +1,7 @@
 package com.example.VietVibe.service;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -15,17 +12,20 @@ import com.example.VietVibe.dto.request.GameCreationRequest;
 import com.example.VietVibe.dto.request.GameUpdateRequest;
 import com.example.VietVibe.dto.response.ApiPagination;
 import com.example.VietVibe.dto.response.CountElementResponse;
+import com.example.VietVibe.dto.response.GameChangeSetResponse;
 import com.example.VietVibe.dto.response.GameResponse;
+import com.example.VietVibe.dto.response.GameSummaryResponse;
+import com.example.VietVibe.dto.response.LeaderboardResponse;
 import com.example.VietVibe.dto.response.PlayGameResponse;
-import com.example.VietVibe.entity.Answer;
 import com.example.VietVibe.entity.Game;
-import com.example.VietVibe.entity.Question;
 import com.example.VietVibe.exception.AppException;
 import com.example.VietVibe.exception.ErrorCode;
 import com.example.VietVibe.mapper.GameMapper;
 import com.example.VietVibe.repository.GameRepository;
 import com.example.VietVibe.repository.PointRepository;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import jakarta.transaction.Transactional;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
@@ -39,20 +39,33 @@ import lombok.extern.slf4j.Slf4j;
 public class GameService {
     GameRepository gameRepository;
     PointRepository pointRepository;
+    LeaderboardService leaderboardService;
+    UserGameStatsService userGameStatsService;
+    GameCounterService gameCounterService;
+    AnswerKeyService answerKeyService;
+    GameFetchService gameFetchService;
+    GameDiffService gameDiffService;
+    EntityManager entityManager;
 
     GameMapper gameMapper;
 
+    @Transactional
     public GameResponse getGameById(Long id) {
-        Game game = gameRepository.findById(id).orElseThrow(() -> new AppException(ErrorCode.GAME_NOT_EXISTED));
-        return gameMapper.toGameResponse(game);
+        Game game = gameFetchService.findTreeById(id)
+                .orElseThrow(() -> new AppException(ErrorCode.GAME_NOT_EXISTED));
+        return withLiveCounters(game, gameMapper.toGameResponse(game));
     }
 
+    @Transactional
     public ApiPagination<GameResponse> getAllGames(Specification<Game> spec, Pageable pageable) {
 
         log.info("Get all games");
         Page<Game> pageGame = this.gameRepository.findAll(spec, pageable);
+        gameFetchService.fetchQuestionTrees(pageGame.getContent());
 
-        List<GameResponse> listGame = pageGame.getContent().stream().map(gameMapper::toGameResponse).toList();
+        List<GameResponse> listGame = pageGame.getContent().stream()
+                .map(game -> withLiveCounters(game, gameMapper.toGameResponse(game)))
+                .toList();
 
         ApiPagination.Meta mt = new ApiPagination.Meta();
 
@@ -68,7 +81,44 @@ public class GameService {
                 .build();
     }
 
+    public ApiPagination<GameSummaryResponse> getGameSummaries(Specification<Game> spec, Pageable pageable) {
+
+        log.info("Get game summaries");
+        Specification<Game> filter = spec == null ? Specification.unrestricted() : spec;
+        Page<GameRepository.GameSummary> pageGame = this.gameRepository.findBy(filter,
+                q -> q.as(GameRepository.GameSummary.class).page(pageable));
+
+        List<GameSummaryResponse> listGame = pageGame.getContent().stream()
+                .map(summary -> {
+                    GameSummaryResponse res = gameMapper.toGameSummaryResponse(summary);
+                    res.setTimesPlayed((int) (summary.getTimesPlayed()
+                            + gameCounterService.pendingPlays(summary.getId())));
+                    res.setBestScore(gameCounterService.bestScore(summary.getId(), summary.getBestScore()));
+                    return res;
+                })
+                .toList();
+
+        ApiPagination.Meta mt = new ApiPagination.Meta();
+
+        mt.setCurrent(pageable.getPageNumber() + 1);
+        mt.setPageSize(pageable.getPageSize());
+
+        mt.setPages(pageGame.getTotalPages());
+        mt.setTotal(pageGame.getTotalElements());
+
+        return ApiPagination.<GameSummaryResponse>builder()
+                .meta(mt)
+                .result(listGame)
+                .build();
+    }
+
     public GameResponse create(GameCreationRequest request) {
+        Game saved = gameRepository.save(newGame(request));
+        return gameMapper.toGameResponse(saved);
+    }
+
+    // Dựng entity Game mới từ request và gắn quan hệ ngược question -> game, answer -> question
+    public Game newGame(GameCreationRequest request) {
         Game game = gameMapper.toGame(request);
 
         if (game.getQuestions() != null) {
@@ -83,92 +133,76 @@ public class GameService {
             });
             game.setTotalQuestion(game.getQuestions().size());
         }
-
-        Game saved = gameRepository.save(game);
-        return gameMapper.toGameResponse(saved);
+        return game;
     }
 
     @Transactional
     public GameResponse updateGame(Long id, GameUpdateRequest request) {
-        Game game = gameRepository.findById(id)
+        Game game = gameFetchService.findTreeById(id)
                 .orElseThrow(() -> new AppException(ErrorCode.GAME_NOT_EXISTED));
 
-        // update basic fields
-        game.setName(request.getName());
-        game.setDescription(request.getDescription());
-        game.setType(request.getType());
-
-        // Map hiện có (question cũ)
-        Map<Long, Question> existingQuestions = game.getQuestions().stream()
-                .collect(Collectors.toMap(Question::getId, q -> q));
-
-        // Duyệt qua request
-        List<Question> updatedQuestions = new ArrayList<>();
-        for (Question newQ : request.getQuestions()) {
-            if (newQ.getId() != null && existingQuestions.containsKey(newQ.getId())) {
-                // update question cũ
-                Question oldQ = existingQuestions.get(newQ.getId());
-                oldQ.setContent(newQ.getContent());
-                oldQ.setImageUrl(newQ.getImageUrl());
-                oldQ.setAudioUrl(newQ.getAudioUrl());
-
-                // xử lý answers
-                Map<Long, Answer> existingAnswers = oldQ.getAnswers().stream()
-                        .collect(Collectors.toMap(Answer::getId, a -> a));
-
-                List<Answer> updatedAnswers = new ArrayList<>();
-                for (Answer newA : newQ.getAnswers()) {
-                    if (newA.getId() != null && existingAnswers.containsKey(newA.getId())) {
-                        // update answer cũ
-                        Answer oldA = existingAnswers.get(newA.getId());
-                        oldA.setContent(newA.getContent());
-                        oldA.setCorrect(newA.isCorrect());
-                        updatedAnswers.add(oldA);
-                    } else {
-                        // thêm answer mới
-                        newA.setQuestion(oldQ);
-                        updatedAnswers.add(newA);
-                    }
-                }
-
-                // xóa answer thừa
-                oldQ.getAnswers().clear();
-                oldQ.getAnswers().addAll(updatedAnswers);
+        // client gửi version đã đọc; lệch nghĩa là có người sửa trước
+        if (request.getVersion() != null && request.getVersion() != game.getVersion()) {
+            throw new AppException(ErrorCode.GAME_VERSION_CONFLICT);
+        }
 
-                updatedQuestions.add(oldQ);
-            } else {
-                // thêm question mới
-                newQ.setGame(game);
-                newQ.getAnswers().forEach(a -> a.setQuestion(newQ));
-                updatedQuestions.add(newQ);
+        GameChangeSetResponse changes = gameDiffService.apply(game, request);
+        boolean forcedVersion = false;
+        if (!changes.isEmpty()) {
+            if (!changes.isGameUpdated()) {
+                // chỉ có question/answer đổi: dòng games không dirty nên phải tự tăng version;
+                // tăng khi commit (kiểm tra version cũ), không giữ khoá dòng suốt transaction
+                entityManager.lock(game, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+                forcedVersion = true;
             }
+            entityManager.flush();
+            answerKeyService.invalidate(id);
         }
+        log.info("Updated game {}: {}", id, changes);
 
-        // xóa question thừa
-        game.getQuestions().clear();
-        game.getQuestions().addAll(updatedQuestions);
-
-        Game saved = gameRepository.save(game);
-        return gameMapper.toGameResponse(saved);
+        GameResponse response = withLiveCounters(game, gameMapper.toGameResponse(game));
+        if (forcedVersion) {
+            // version chỉ tăng lúc commit, trả trước giá trị sẽ có để client gửi lại đúng
+            response.setVersion(game.getVersion() + 1);
+        }
+        response.setChanges(changes);
+        return response;
     }
 
+    @Transactional
     public void delete(long id) {
         gameRepository.deleteById(id);
+        leaderboardService.onGameDeleted(id);
+        gameCounterService.discard(id);
+        answerKeyService.invalidate(id);
+        userGameStatsService.onGameDeleted(id);
     }
 
-    // Mới: Tăng timesPlayed
-    @Transactional
+    // Mới: Tăng timesPlayed (ghi vào bộ đếm, không khoá dòng games)
     public void startPlay(Long id) {
-        Game game = gameRepository.findById(id).orElseThrow(() -> new AppException(ErrorCode.GAME_NOT_EXISTED));
-        game.setTimesPlayed(game.getTimesPlayed() + 1);
-        gameRepository.save(game);
+        if (!gameRepository.existsById(id)) {
+            throw new AppException(ErrorCode.GAME_NOT_EXISTED);
+        }
+        gameCounterService.recordPlay(id);
     }
 
-    // Helper: Lấy bestScore từ points
+    // Cộng phần lượt chơi/điểm cao nhất chưa được flush xuống DB
+    private GameResponse withLiveCounters(Game game, GameResponse response) {
+        response.setTimesPlayed((int) (game.getTimesPlayed() + gameCounterService.pendingPlays(game.getId())));
+        response.setBestScore(gameCounterService.bestScore(game.getId(), game.getBestScore()));
+        return response;
+    }
+
+    // Helper: Lấy bestScore từ leaderboard
     private int getBestScore(Game game) {
-        return pointRepository.findTopByGameOrderByScoreDesc(game)
-                .map(p -> p.getScore() + p.getBonus())
-                .orElse(0);
+        return leaderboardService.getBestScore(game.getId());
+    }
+
+    public LeaderboardResponse getLeaderboard(Long id) {
+        if (!gameRepository.existsById(id)) {
+            throw new AppException(ErrorCode.GAME_NOT_EXISTED);
+        }
+        return leaderboardService.getLeaderboard(id);
     }
 
     public CountElementResponse countGames() {
@@ -0,0 +1,232 @@
+package com.example.VietVibe.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.VietVibe.dto.request.GameCreationRequest;
+import com.example.VietVibe.dto.response.GameImportResponse;
+import com.example.VietVibe.dto.response.GameResponse;
+import com.example.VietVibe.entity.Game;
+import com.example.VietVibe.entity.Question;
+import com.example.VietVibe.mapper.GameMapper;
+import com.example.VietVibe.repository.GameRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Import / export hàng loạt game (kèm questions, answers) dạng JSON stream.
+ *
+ * Import đọc từng game một bằng MappingIterator (mảng JSON hoặc NDJSON), gom
+ * theo lô và mỗi lô commit trong một transaction riêng, sau đó clear
+ * persistence context nên bộ nhớ không phụ thuộc kích thước file. Lô lỗi chỉ
+ * làm hỏng các game trong lô đó; JSON hỏng giữa chừng thì dừng, lưu phần đã
+ * đọc và trả về báo cáo kèm vị trí lỗi (completed = false).
+ *
+ * Export duyệt game theo id (keyset), nạp cây của từng trang bằng
+ * GameFetchService rồi ghi ngay ra output bằng JsonGenerator. Định dạng export
+ * là GameResponse nên có thể import lại trực tiếp.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class GameTransferService {
+    private static final int MAX_REPORTED_ERRORS = 50;
+
+    GameRepository gameRepository;
+    GameService gameService;
+    GameFetchService gameFetchService;
+    GameMapper gameMapper;
+    ObjectMapper objectMapper;
+    TransactionTemplate transactionTemplate;
+    EntityManager entityManager;
+
+    @Value("${game-transfer.batch-size:50}")
+    @NonFinal
+    int batchSize;
+
+    // ========== IMPORT ==========
+
+    public GameImportResponse importGames(InputStream input) throws IOException {
+        ImportProgress progress = new ImportProgress();
+        List<GameCreationRequest> batch = new ArrayList<>(batchSize);
+        // vị trí trong file của từng game trong lô (bản ghi không hợp lệ không vào lô)
+        List<Integer> positions = new ArrayList<>(batchSize);
+        int index = 0;
+
+        // readValues(InputStream) tự bỏ qua dấu [ ] của mảng gốc; readValues(JsonParser) thì không
+        try (MappingIterator<GameCreationRequest> games = objectMapper
+                .readerFor(GameCreationRequest.class)
+                .readValues(input)) {
+            while (true) {
+                GameCreationRequest request;
+                try {
+                    if (!games.hasNextValue()) {
+                        break;
+                    }
+                    request = games.nextValue();
+                } catch (JsonProcessingException e) {
+                    // các lô trước đã commit: lưu nốt phần đã đọc được rồi báo vị trí lỗi
+                    JsonLocation location = e.getLocation();
+                    progress.fail(0, "Game #" + index + ": invalid JSON"
+                            + (location != null ? " at line " + location.getLineNr() + ", column "
+                                    + location.getColumnNr() : "")
+                            + ": " + e.getOriginalMessage() + " (import stopped)");
+                    progress.stopped = true;
+                    break;
+                }
+                String problem = validate(request);
+                if (problem != null) {
+                    progress.fail(1, "Game #" + index + ": " + problem);
+                } else {
+                    batch.add(request);
+                    positions.add(index);
+                }
+                index++;
+
+                if (batch.size() >= batchSize) {
+                    saveBatch(batch, positions, progress);
+                    batch.clear();
+                    positions.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            saveBatch(batch, positions, progress);
+        }
+
+        log.info("Game import {}: {} imported, {} failed in {} batches",
+                progress.stopped ? "stopped at a JSON error" : "finished",
+                progress.imported, progress.failed, progress.batches);
+        return GameImportResponse.builder()
+                .imported(progress.imported)
+                .failed(progress.failed)
+                .batches(progress.batches)
+                .completed(!progress.stopped)
+                .errors(progress.errors)
+                .build();
+    }
+
+    private void saveBatch(List<GameCreationRequest> batch, List<Integer> positions, ImportProgress progress) {
+        progress.batches++;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (GameCreationRequest request : batch) {
+                    entityManager.persist(gameService.newGame(stripIds(request)));
+                }
+                entityManager.flush();
+            });
+            progress.imported += batch.size();
+            log.info("Game import batch {}: {} games saved ({} total)", progress.batches, batch.size(),
+                    progress.imported);
+        } catch (Exception e) {
+            progress.fail(batch.size(), "Games " + positions.stream().map(i -> "#" + i)
+                    .collect(Collectors.joining(", ")) + ": " + e.getMessage());
+            log.warn("Game import batch {} failed: {}", progress.batches, e.getMessage());
+        } finally {
+            // open-in-view giữ một EntityManager cho cả request, phải clear để không tích luỹ entity
+            entityManager.clear();
+        }
+    }
+
+    private String validate(GameCreationRequest request) {
+        if (request == null) {
+            return "empty record";
+        }
+        if (request.getName() == null || request.getName().isBlank()) {
+            return "name is required";
+        }
+        if (request.getType() == null) {
+            return "type is required";
+        }
+        return null;
+    }
+
+    // File export mang sẵn _id, bỏ đi để sequence cấp id mới
+    private GameCreationRequest stripIds(GameCreationRequest request) {
+        request.setId(null);
+        if (request.getQuestions() != null) {
+            for (Question question : request.getQuestions()) {
+                question.setId(null);
+                if (question.getAnswers() != null) {
+                    question.getAnswers().forEach(a -> a.setId(null));
+                }
+            }
+        }
+        return request;
+    }
+
+    // ========== EXPORT ==========
+
+    public void exportGames(OutputStream output, boolean ndjson) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output, JsonEncoding.UTF8)) {
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+
+            long afterId = 0;
+            int exported = 0;
+            while (true) {
+                List<Long> ids = gameRepository.findIdsAfter(afterId, PageRequest.of(0, batchSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                List<GameResponse> page = transactionTemplate.execute(status -> gameFetchService
+                        .findTreesByIds(ids)
+                        .stream()
+                        .map(gameMapper::toGameResponse)
+                        .toList());
+
+                for (GameResponse game : page) {
+                    generator.writeObject(game);
+                    if (ndjson) {
+                        generator.writeRaw('\n');
+                    }
+                }
+                generator.flush();
+                exported += page.size();
+                afterId = ids.get(ids.size() - 1);
+            }
+
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+            log.info("Game export finished: {} games", exported);
+        }
+    }
+
+    private static final class ImportProgress {
+        int imported;
+        int failed;
+        int batches;
+        boolean stopped;
+        final List<String> errors = new ArrayList<>();
+
+        void fail(int count, String message) {
+            failed += count;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(message);
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.VietVibe.service;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import ws.schild.jave.info.MultimediaInfo;
+import ws.schild.jave.info.VideoSize;
+
+/**
+ * Đóng gói video thành HLS nhiều mức bitrate bằng ffmpeg đi kèm JAVE.
+ *
+ * Mỗi video được ghi vào upload/hls/{tên file}/ gồm master.m3u8 và một thư
+ * mục cho mỗi rendition ({height}p/index.m3u8 + các segment .ts). Chỉ tạo
+ * rendition không cao hơn video gốc. Toàn bộ được ghi vào thư mục tạm rồi
+ * đổi tên một lần nên client không bao giờ thấy playlist dở dang; nhờ vậy
+ * file trong hls/ là bất biến và được phục vụ với cache dài hạn.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class HlsPackagingService {
+    public static final String HLS_FOLDER = "hls";
+    private static final int AUDIO_BITRATE = 128_000;
+    // khi ffprobe không đọc được frame rate
+    private static final float DEFAULT_FRAME_RATE = 25f;
+
+    FileService fileService;
+
+    List<Rendition> renditions = new ArrayList<>();
+
+    @Value("${media.hls.enabled:false}")
+    @NonFinal
+    boolean enabled;
+
+    @Value("${media.hls.segment-seconds:6}")
+    @NonFinal
+    int segmentSeconds;
+
+    // height:kbps, ví dụ 360:800,720:2800
+    @Value("${media.hls.renditions:360:800,720:2800,1080:5000}")
+    @NonFinal
+    String renditionSpec;
+
+    @PostConstruct
+    void parseRenditions() {
+        for (String item : renditionSpec.split(",")) {
+            String[] parts = item.trim().split(":");
+            renditions.add(new Rendition(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]) * 1000));
+        }
+        renditions.sort(Comparator.comparingInt(Rendition::height));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Đóng gói file nguồn, trả về đường dẫn master playlist tương đối với thư
+     * mục upload (hls/{tên}/master.m3u8), hoặc null nếu file không có hình.
+     */
+    public String packageVideo(Path source, MultimediaInfo info) throws IOException, URISyntaxException {
+        if (info.getVideo() == null || info.getVideo().getSize() == null) {
+            return null;
+        }
+        VideoSize size = info.getVideo().getSize();
+        String name = source.getFileName().toString().replaceFirst("\\.[^.]+$", "");
+        String outputName = HLS_FOLDER + "/" + name + "/master.m3u8";
+
+        Path hlsRoot = fileService.resolve(HLS_FOLDER, "");
+        Files.createDirectories(hlsRoot);
+        Path target = hlsRoot.resolve(name);
+        if (Files.exists(target.resolve("master.m3u8"))) {
+            return outputName;
+        }
+        Path work = hlsRoot.resolve(name + ".tmp");
+        FfmpegRunner.deleteRecursively(work);
+        Files.createDirectories(work);
+
+        try {
+            List<Rendition> selected = select(size.getHeight());
+            StringBuilder master = new StringBuilder("#EXTM3U\n#EXT-X-VERSION:3\n");
+            for (Rendition rendition : selected) {
+                int width = evenWidth(size, rendition.height());
+                Path dir = Files.createDirectories(work.resolve(rendition.height() + "p"));
+                encode(source, dir, rendition, gopSize(info.getVideo().getFrameRate(), segmentSeconds));
+                master.append("#EXT-X-STREAM-INF:BANDWIDTH=").append(rendition.bitRate() + AUDIO_BITRATE)
+                        .append(",RESOLUTION=").append(width).append('x').append(rendition.height()).append('\n')
+                        .append(rendition.height()).append("p/index.m3u8\n");
+            }
+            Files.writeString(work.resolve("master.m3u8"), master.toString(), StandardCharsets.UTF_8);
+
+            FfmpegRunner.deleteRecursively(target);
+            Files.move(work, target, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Packaged {} into HLS ({} renditions)", source.getFileName(), selected.size());
+            return outputName;
+        } catch (IOException | RuntimeException e) {
+            FfmpegRunner.deleteRecursively(work);
+            throw e;
+        }
+    }
+
+    // Các rendition không cao hơn video gốc; video nhỏ hơn mức thấp nhất vẫn có một rendition
+    private List<Rendition> select(int sourceHeight) {
+        List<Rendition> selected = renditions.stream().filter(r -> r.height() <= sourceHeight).toList();
+        if (selected.isEmpty()) {
+            Rendition lowest = renditions.get(0);
+            return List.of(new Rendition(sourceHeight - sourceHeight % 2, lowest.bitRate()));
+        }
+        return selected;
+    }
+
+    private int evenWidth(VideoSize size, int height) {
+        int width = Math.round((float) size.getWidth() * height / size.getHeight());
+        return width - width % 2;
+    }
+
+    // Số frame giữa hai keyframe để mỗi segment bắt đầu đúng bằng một keyframe
+    static int gopSize(float frameRate, int segmentSeconds) {
+        float fps = Float.isFinite(frameRate) && frameRate > 0 ? frameRate : DEFAULT_FRAME_RATE;
+        return Math.max(1, Math.round(fps * segmentSeconds));
+    }
+
+    private void encode(Path source, Path dir, Rendition rendition, int gop) throws IOException {
+        String[] args = {
+                "-i", source.toAbsolutePath().toString(),
+                "-vf", "scale=-2:" + rendition.height(),
+                "-c:v", "libx264", "-profile:v", "main", "-preset", "veryfast",
+                "-b:v", String.valueOf(rendition.bitRate()),
+                "-maxrate", String.valueOf(rendition.bitRate() * 107 / 100),
+                "-bufsize", String.valueOf(rendition.bitRate() * 3 / 2),
+                "-g", String.valueOf(gop), "-keyint_min", String.valueOf(gop), "-sc_threshold", "0",
+                "-c:a", "aac", "-b:a", String.valueOf(AUDIO_BITRATE), "-ac", "2",
+                "-f", "hls", "-hls_time", String.valueOf(segmentSeconds), "-hls_playlist_type", "vod",
+                "-hls_segment_filename", dir.resolve("seg_%05d.ts").toString(),
+                "-y", dir.resolve("index.m3u8").toString()
+        };
+
+        FfmpegRunner.run(rendition.height() + "p", args);
+    }
+
+    private record Rendition(int height, int bitRate) {
+    }
+}
@@ -1,28 +1,164 @@
 package com.example.VietVibe.service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.VietVibe.entity.InvalidatedToken;
 import com.example.VietVibe.repository.InvalidatedTokenRepository;
+import com.example.VietVibe.util.BloomFilter;
+import com.example.VietVibe.util.TransactionHooks;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
 
+import jakarta.annotation.PostConstruct;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Danh sách token đã thu hồi (logout), giữ trong bộ nhớ để JwtDecoder kiểm
+ * tra mà không phải query DB trên mỗi request.
+ *
+ * Token được nhận diện bằng jti, hoặc SHA-256 của cả token với token phát
+ * hành trước khi có jti. Mỗi mục hết hiệu lực cùng lúc với token (exp), sau
+ * đó token tự bị từ chối nên mục được bỏ đi. Bloom filter đứng trước map để
+ * request bình thường (token chưa bị thu hồi) chỉ tốn vài phép băm. Bảng
+ * invalidated_tokens là bản lưu bền, được nạp lại khi khởi động; dòng hết hạn
+ * được dọn dần theo bucket thời gian (xem {@link #sweepExpired()}).
+ */
 @Service
+@DependsOn("invalidatedTokenMigration")
 @RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 @Slf4j
 public class InvalidatedTokenService {
+    private static final int MIN_CAPACITY = 1024;
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+    // token không có exp (không phát hành nữa) được giữ tới mốc này
+    private static final Instant NEVER = Instant.parse("9999-12-31T00:00:00Z");
+
     InvalidatedTokenRepository invalidatedTokenRepository;
 
-    public boolean checkToken(String token) {
-        return this.invalidatedTokenRepository.existsByAccessToken(token);
+    // key -> thời điểm hết hạn (epoch ms)
+    Map<String, Long> revoked = new ConcurrentHashMap<>();
+    // ghi vào bloom và dựng lại bloom phải tuần tự; đọc thì không cần khoá
+    Object bloomLock = new Object();
+
+    @Value("${auth.denylist.sweep-batch-size:500}")
+    @NonFinal
+    int sweepBatchSize;
+
+    @Value("${auth.denylist.sweep-max-batches:20}")
+    @NonFinal
+    int sweepMaxBatches;
+
+    @NonFinal
+    volatile BloomFilter bloom = new BloomFilter(MIN_CAPACITY, FALSE_POSITIVE_RATE);
+
+    @PostConstruct
+    public void load() {
+        long now = System.currentTimeMillis();
+        invalidatedTokenRepository.findByExpiresAtAfter(Instant.ofEpochMilli(now))
+                .forEach(token -> revoked.put(token.getId(), token.getExpiresAt().toEpochMilli()));
+        rebuildBloom();
+        log.info("Loaded {} revoked tokens", revoked.size());
+    }
+
+    public boolean isRevoked(Jwt jwt) {
+        return isRevoked(keyOf(jwt.getId(), jwt.getTokenValue()));
+    }
+
+    public boolean isRevoked(String key) {
+        if (!bloom.mightContain(key)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(key);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    @Transactional
+    public void revoke(String token) throws ParseException {
+        JWTClaimsSet claims = SignedJWT.parse(token).getJWTClaimsSet();
+        String key = keyOf(claims.getJWTID(), token);
+        Date exp = claims.getExpirationTime();
+        Instant expiresAt = exp != null ? exp.toInstant() : NEVER;
+        if (!expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        invalidatedTokenRepository.save(InvalidatedToken.builder().id(key).expiresAt(expiresAt).build());
+        TransactionHooks.afterCommit(() -> remember(key, expiresAt.toEpochMilli()));
+    }
+
+    public static String keyOf(String jti, String token) {
+        if (jti != null && !jti.isBlank()) {
+            return jti;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Bỏ các mục đã hết hạn khỏi bộ nhớ, dựng lại bloom để nó không đầy dần
+    @Scheduled(fixedDelayString = "${auth.denylist.prune-interval-ms:600000}")
+    public void prune() {
+        long now = System.currentTimeMillis();
+        if (revoked.values().removeIf(expiresAt -> expiresAt <= now)) {
+            rebuildBloom();
+        }
+    }
+
+    /**
+     * Xoá khỏi DB các token thuộc bucket đã kết thúc, từng lô nhỏ để không
+     * giữ khoá lâu. Token hết hạn trong giờ hiện tại đợi lần quét sau; trong
+     * lúc đó chúng đã bị JwtDecoder từ chối vì exp.
+     */
+    @Scheduled(fixedDelayString = "${auth.denylist.sweep-interval-ms:300000}")
+    public void sweepExpired() {
+        long bucket = InvalidatedToken.bucketOf(Instant.now());
+        int total = 0;
+        for (int i = 0; i < sweepMaxBatches; i++) {
+            int deleted = invalidatedTokenRepository.deleteExpiredBatch(bucket, sweepBatchSize);
+            total += deleted;
+            if (deleted < sweepBatchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Swept {} expired invalidated tokens", total);
+        }
+    }
+
+    private void remember(String key, long expiresAt) {
+        revoked.put(key, expiresAt);
+        synchronized (bloomLock) {
+            bloom.put(key);
+        }
     }
 
-    @Scheduled(cron = "0 0 0 * * *")
-    public void clearToken() {
-        this.invalidatedTokenRepository.deleteAll();
+    private void rebuildBloom() {
+        synchronized (bloomLock) {
+            BloomFilter fresh = new BloomFilter(Math.max(MIN_CAPACITY, revoked.size() * 2), FALSE_POSITIVE_RATE);
+            revoked.keySet().forEach(fresh::put);
+            bloom = fresh;
+        }
     }
 }
@@ -0,0 +1,277 @@
+package com.example.VietVibe.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.VietVibe.dto.response.LeaderboardEntryResponse;
+import com.example.VietVibe.dto.response.LeaderboardResponse;
+import com.example.VietVibe.entity.Point;
+import com.example.VietVibe.repository.PointRepository;
+import com.example.VietVibe.repository.ScoreBucketRepository;
+import com.example.VietVibe.util.TransactionHooks;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Leaderboard toàn cục và theo từng game, cập nhật tăng dần mỗi khi point
+ * thay đổi.
+ *
+ * Bảng score_buckets lưu histogram (game, tổng điểm) -> số lượt, nên min/max
+ * đọc từ bộ nhớ mà không phải quét bảng point. Top-N của mỗi game được giữ
+ * trong bộ nhớ và chỉ nạp lại từ DB khi một phần tử trong top bị xoá/giảm điểm.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class LeaderboardService {
+
+    private static final Comparator<LeaderboardEntryResponse> RANKING = Comparator
+            .comparingInt(LeaderboardEntryResponse::getScore).reversed()
+            .thenComparing(LeaderboardEntryResponse::getCreatedAt,
+                    Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(LeaderboardEntryResponse::getPointId);
+
+    ScoreBucketRepository scoreBucketRepository;
+    PointRepository pointRepository;
+
+    Map<Long, Board> boards = new ConcurrentHashMap<>();
+    Board global = new Board();
+
+    @Value("${leaderboard.top-size:10}")
+    @NonFinal
+    int topSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void warmUp() {
+        if (scoreBucketRepository.count() == 0 && pointRepository.count() > 0) {
+            int rows = scoreBucketRepository.rebuildFromPoints();
+            log.info("Rebuilt {} leaderboard buckets from points", rows);
+        }
+        scoreBucketRepository.findAll().forEach(bucket -> {
+            board(bucket.getGameId()).adjust(bucket.getScore(), bucket.getOccurrences());
+            global.adjust(bucket.getScore(), bucket.getOccurrences());
+        });
+        log.info("Leaderboard loaded for {} games", boards.size());
+    }
+
+    // ========== WRITE (gọi trong transaction của PointService) ==========
+
+    @Transactional
+    public void onPointAdded(Point point) {
+        long gameId = point.getGame().getId();
+        int total = total(point);
+        scoreBucketRepository.increment(gameId, total, 1);
+
+        LeaderboardEntryResponse entry = toEntry(point);
+        TransactionHooks.afterCommit(() -> {
+            Board board = board(gameId);
+            board.adjust(total, 1);
+            board.offer(entry, topSize);
+            global.adjust(total, 1);
+        });
+    }
+
+    @Transactional
+    public void onPointUpdated(Point point, int oldTotal) {
+        long gameId = point.getGame().getId();
+        int newTotal = total(point);
+        if (newTotal == oldTotal) {
+            return;
+        }
+        scoreBucketRepository.increment(gameId, oldTotal, -1);
+        scoreBucketRepository.deleteEmpty(gameId, oldTotal);
+        scoreBucketRepository.increment(gameId, newTotal, 1);
+
+        LeaderboardEntryResponse entry = toEntry(point);
+        TransactionHooks.afterCommit(() -> {
+            Board board = board(gameId);
+            board.adjust(oldTotal, -1);
+            board.adjust(newTotal, 1);
+            board.remove(entry.getPointId(), topSize);
+            board.offer(entry, topSize);
+            global.adjust(oldTotal, -1);
+            global.adjust(newTotal, 1);
+        });
+    }
+
+    @Transactional
+    public void onPointDeleted(Point point) {
+        long gameId = point.getGame().getId();
+        int total = total(point);
+        scoreBucketRepository.increment(gameId, total, -1);
+        scoreBucketRepository.deleteEmpty(gameId, total);
+
+        TransactionHooks.afterCommit(() -> {
+            Board board = board(gameId);
+            board.adjust(total, -1);
+            board.remove(point.getId(), topSize);
+            global.adjust(total, -1);
+        });
+    }
+
+    @Transactional
+    public void onGameDeleted(long gameId) {
+        scoreBucketRepository.deleteByGameId(gameId);
+
+        TransactionHooks.afterCommit(() -> {
+            Board board = boards.remove(gameId);
+            if (board != null) {
+                board.histogramSnapshot().forEach((score, count) -> global.adjust(score, -count));
+            }
+        });
+    }
+
+    // ========== READ ==========
+
+    public int getMaxScore() {
+        return global.max();
+    }
+
+    public int getMinScore() {
+        return global.min();
+    }
+
+    public int getBestScore(long gameId) {
+        Board board = boards.get(gameId);
+        return board == null ? 0 : board.max();
+    }
+
+    public LeaderboardResponse getLeaderboard(long gameId) {
+        Board board = board(gameId);
+        List<LeaderboardEntryResponse> entries = board.top();
+        if (entries == null) {
+            long version = board.version();
+            entries = pointRepository.findLeaders(gameId, PageRequest.of(0, topSize))
+                    .stream()
+                    .map(this::toEntry)
+                    .toList();
+            board.install(entries, version);
+        }
+
+        return LeaderboardResponse.builder()
+                .gameId(gameId)
+                .maxScore(board.max())
+                .minScore(board.min())
+                .totalPlays(board.plays())
+                .entries(entries)
+                .build();
+    }
+
+    private Board board(long gameId) {
+        return boards.computeIfAbsent(gameId, id -> new Board());
+    }
+
+    private int total(Point point) {
+        return point.getScore() + point.getBonus();
+    }
+
+    private LeaderboardEntryResponse toEntry(Point point) {
+        return LeaderboardEntryResponse.builder()
+                .pointId(point.getId())
+                .userId(point.getUser() != null ? point.getUser().getId() : null)
+                .userName(point.getUser() != null ? point.getUser().getUsername() : null)
+                .score(total(point))
+                .createdAt(point.getCreatedAt())
+                .build();
+    }
+
+    /**
+     * Trạng thái in-memory của một leaderboard. Mọi thao tác đều synchronized
+     * trên chính board nên các game khác nhau không tranh chấp khoá.
+     */
+    private static final class Board {
+        private final TreeMap<Integer, Long> histogram = new TreeMap<>();
+        private long plays;
+        // null = top chưa được nạp (hoặc đã bị loại khỏi bộ nhớ do xoá phần tử)
+        private List<LeaderboardEntryResponse> top;
+        private long version;
+
+        synchronized void adjust(int score, long delta) {
+            long count = histogram.getOrDefault(score, 0L) + delta;
+            if (count > 0) {
+                histogram.put(score, count);
+            } else {
+                histogram.remove(score);
+            }
+            plays += delta;
+        }
+
+        synchronized int max() {
+            return histogram.isEmpty() ? 0 : histogram.lastKey();
+        }
+
+        synchronized int min() {
+            return histogram.isEmpty() ? 0 : histogram.firstKey();
+        }
+
+        synchronized long plays() {
+            return plays;
+        }
+
+        synchronized long version() {
+            return version;
+        }
+
+        synchronized Map<Integer, Long> histogramSnapshot() {
+            return new TreeMap<>(histogram);
+        }
+
+        synchronized List<LeaderboardEntryResponse> top() {
+            return top == null ? null : List.copyOf(top);
+        }
+
+        synchronized void install(List<LeaderboardEntryResponse> entries, long expectedVersion) {
+            // bỏ qua nếu đã có ghi mới chen vào trong lúc đang query
+            if (version == expectedVersion) {
+                top = new ArrayList<>(entries);
+            }
+        }
+
+        synchronized void offer(LeaderboardEntryResponse entry, int limit) {
+            version++;
+            if (top == null) {
+                return;
+            }
+            int idx = 0;
+            while (idx < top.size() && RANKING.compare(top.get(idx), entry) <= 0) {
+                idx++;
+            }
+            if (idx < limit) {
+                top.add(idx, entry);
+                if (top.size() > limit) {
+                    top.remove(top.size() - 1);
+                }
+            }
+        }
+
+        synchronized void remove(Long pointId, int limit) {
+            version++;
+            if (top == null) {
+                return;
+            }
+            boolean full = top.size() >= limit;
+            boolean removed = top.removeIf(e -> e.getPointId().equals(pointId));
+            // top đầy nghĩa là còn point ngoài danh sách có thể lấp chỗ trống -> nạp lại
+            if (removed && full) {
+                top = null;
+            }
+        }
+    }
+}
@@ -3,9 +3,10 @@ package com.example.VietVibe.service;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -20,6 +21,7 @@ import com.example.VietVibe.dto.response.LessonResponse;
 import com.example.VietVibe.dto.response.UserResponse;
 import com.example.VietVibe.entity.Game;
 import com.example.VietVibe.entity.Lesson;
+import com.example.VietVibe.entity.MediaJob;
 import com.example.VietVibe.entity.User;
 import com.example.VietVibe.entity.UserLesson;
 import com.example.VietVibe.exception.AppException;
@@ -29,8 +31,6 @@ import com.example.VietVibe.repository.LessonRepository;
 import com.example.VietVibe.repository.UserLessonRepository;
 import com.example.VietVibe.repository.LessonDetailRepository;
 import com.example.VietVibe.repository.VocabularyRepository;
-import com.example.VietVibe.repository.UserRepository;
-import com.example.VietVibe.util.SecurityUtil;
 
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
@@ -42,13 +42,17 @@ import lombok.extern.slf4j.Slf4j;
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 @Slf4j
 public class LessonService {
+    // folder chứa video bài học (trùng với folder frontend upload vào)
+    static final String VIDEO_FOLDER = "video";
+
     LessonRepository lessonRepository;
     UserLessonRepository userLessonRepository;
     LessonMapper lessonMapper;
     LessonDetailRepository lessonDetailRepository;
     VocabularyRepository vocabularyRepository;
-    @Autowired
-    UserRepository userRepository;
+    MediaProcessingService mediaProcessingService;
+    FileService fileService;
+    CurrentUserService currentUserService;
 
     public LessonResponse create(LessonCreationRequest request) {
         log.info("Create a lesson");
@@ -56,7 +60,9 @@ public class LessonService {
             throw new AppException(ErrorCode.CATEGORY_EXISTED);
         }
         Lesson lesson = lessonMapper.toLesson(request);
+        applyProcessedMedia(lesson);
         lesson = lessonRepository.save(lesson);
+        fileService.retain(VIDEO_FOLDER, lesson.getVideourl());
         return lessonMapper.toLessonResponse(lesson);
     }
 
@@ -74,8 +80,30 @@ public class LessonService {
                 throw new AppException(ErrorCode.CATEGORY_EXISTED);
             }
         }
+        String previousVideo = lesson.getVideourl();
         lessonMapper.updateLesson(lesson, request);
-        return lessonMapper.toLessonResponse(lessonRepository.save(lesson));
+        applyProcessedMedia(lesson);
+        LessonResponse response = lessonMapper.toLessonResponse(lessonRepository.save(lesson));
+        if (!Objects.equals(previousVideo, lesson.getVideourl())) {
+            fileService.retain(VIDEO_FOLDER, lesson.getVideourl());
+            fileService.release(VIDEO_FOLDER, previousVideo);
+        }
+        return response;
+    }
+
+    // Video upload xong trước khi lưu lesson: lấy thời lượng / HLS từ media job đã chạy xong
+    private void applyProcessedMedia(Lesson lesson) {
+        Optional<MediaJob> job = mediaProcessingService.findCompletedJob(lesson.getVideourl());
+        lesson.setHlsPath(job.map(MediaJob::getHlsPath).orElse(null));
+        lesson.setPosterPath(job.map(MediaJob::getPosterPath).orElse(null));
+        lesson.setThumbnailsPath(job.map(MediaJob::getThumbnailsPath).orElse(null));
+        if (lesson.getDurationSeconds() > 0) {
+            return;
+        }
+        job.ifPresent(j -> {
+            lesson.setDurationSeconds((int) j.getDurationSeconds());
+            lesson.setTime(MediaProcessingService.formatDuration(j.getDurationSeconds()));
+        });
     }
 
     public void delete(String id) {
@@ -102,6 +130,7 @@ public class LessonService {
 
         // finally delete the lesson itself
         lessonRepository.delete(lesson);
+        fileService.release(VIDEO_FOLDER, lesson.getVideourl());
     }
 
     public List<LessonResponse> getAllLessons() {
@@ -116,28 +145,25 @@ public class LessonService {
         // 1. Lấy trang Lesson như cũ
         Page<Lesson> pageLesson = this.lessonRepository.findAll(spec, pageable);
 
-        // 2. Lấy thông tin User hiện tại
-        String username = SecurityUtil.getCurrentUserLogin().orElse(null);
+        // 2. Lấy thông tin User hiện tại (từ claim trong token, không đọc bảng users)
         Map<String, Float> progressMap = new HashMap<>();
 
-        if (username != null) {
-            User user = userRepository.findByUsername(username).orElse(null);
-            if (user != null) {
-                // Lấy list ID của các bài học trong trang hiện tại
-                List<String> lessonIds = pageLesson.getContent().stream()
-                        .map(Lesson::getId)
-                        .toList();
-
-                // Chỉ query tiến độ của những bài học trong trang này (Tối ưu performance)
-                List<UserLesson> userProgresses = userLessonRepository.findByUserIdAndLessonIdIn(user.getId(),
-                        lessonIds);
-
-                // Chuyển thành Map <LessonID, Seconds>
-                progressMap = userProgresses.stream()
-                        .collect(Collectors.toMap(
-                                ul -> ul.getLesson().getId(),
-                                UserLesson::getProgess));
-            }
+        CurrentUserService.UserSnapshot user = currentUserService.current().orElse(null);
+        if (user != null) {
+            // Lấy list ID của các bài học trong trang hiện tại
+            List<String> lessonIds = pageLesson.getContent().stream()
+                    .map(Lesson::getId)
+                    .toList();
+
+            // Chỉ query tiến độ của những bài học trong trang này (Tối ưu performance)
+            List<UserLesson> userProgresses = userLessonRepository.findByUserIdAndLessonIdIn(user.id(),
+                    lessonIds);
+
+            // Chuyển thành Map <LessonID, Seconds>
+            progressMap = userProgresses.stream()
+                    .collect(Collectors.toMap(
+                            ul -> ul.getLesson().getId(),
+                            UserLesson::getProgess));
         }
 
         // 3. Map từ Lesson sang LessonResponse và nhét thêm số giây vào
@@ -165,15 +191,9 @@ public class LessonService {
     }
 
     public long getCountCompletedLessons() {
-        String username = SecurityUtil.getCurrentUserLogin().orElse(null);
-        if (username != null) {
-            User user = userRepository.findByUsername(username).orElse(null);
-            if (user != null) {
-
-                return userLessonRepository.countByUserIdAndProgessGreaterThanEqual(user.getId(), 100.0f);
-            }
-        }
-        return 0;
+        return currentUserService.current()
+                .map(user -> userLessonRepository.countByUserIdAndProgessGreaterThanEqual(user.id(), 100.0f))
+                .orElse(0L);
     }
     public CountElementResponse countLessons() {
         long count = this.lessonRepository.count();
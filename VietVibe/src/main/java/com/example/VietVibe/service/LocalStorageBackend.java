@@ -0,0 +1,175 @@
+package com.example.VietVibe.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * StorageBackend trên hệ file cục bộ.
+ *
+ * Blob nằm ở upload/.cas/{2 ký tự đầu}/{sha256}; tên công khai trong các
+ * folder là hard link tới blob nên mọi chỗ đọc file theo đường dẫn (stream
+ * video, /storage/**, media job) không cần đổi. Hệ file không hỗ trợ hard link
+ * thì rơi về copy.
+ */
+@Service
+@Slf4j
+public class LocalStorageBackend implements StorageBackend {
+    private static final String CAS_FOLDER = ".cas";
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    @Value("${upload.file.uri}")
+    private String baseURI;
+
+    // sha256 -> số upload đang giữ blob (đã ghi vào kho nhưng transaction chưa kết thúc)
+    private final Map<String, Integer> pins = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[64];
+
+    public LocalStorageBackend() {
+        Arrays.setAll(locks, i -> new Object());
+    }
+
+    @Override
+    public StoredBlob write(InputStream content) throws IOException {
+        Path temp = tempFile();
+        MessageDigest digest = sha256();
+        long size = 0;
+        try (DigestInputStream in = new DigestInputStream(content, digest);
+                OutputStream out = Files.newOutputStream(temp)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+                size += n;
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return moveIntoStore(temp, HexFormat.of().formatHex(digest.digest()), size);
+    }
+
+    @Override
+    public StoredBlob ingest(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        try (DigestInputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return moveIntoStore(file, HexFormat.of().formatHex(digest.digest()), Files.size(file));
+    }
+
+    @Override
+    public void link(String sha256, String folder, String fileName) throws IOException {
+        Path target = root().resolve(folder).resolve(fileName);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.createLink(target, blobPath(sha256));
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            log.debug("Hard link not supported ({}), copying blob {}", e.getMessage(), sha256);
+            Files.copy(blobPath(sha256), target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public void unlink(String folder, String fileName) throws IOException {
+        Files.deleteIfExists(root().resolve(folder).resolve(fileName));
+    }
+
+    @Override
+    public void unpin(String sha256) {
+        pins.computeIfPresent(sha256, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    @Override
+    public boolean deleteBlob(String sha256) throws IOException {
+        // cùng khoá với pin trong moveIntoStore: upload cùng nội dung không thể mất blob giữa lúc kiểm tra và link
+        synchronized (lockFor(sha256)) {
+            if (pins.containsKey(sha256)) {
+                return false;
+            }
+            Files.deleteIfExists(blobPath(sha256));
+            return true;
+        }
+    }
+
+    private StoredBlob moveIntoStore(Path source, String sha256, long size) throws IOException {
+        synchronized (lockFor(sha256)) {
+            pins.merge(sha256, 1, Integer::sum);
+            try {
+                return store(source, sha256, size);
+            } catch (IOException | RuntimeException e) {
+                unpin(sha256);
+                throw e;
+            }
+        }
+    }
+
+    private StoredBlob store(Path source, String sha256, long size) throws IOException {
+        Path blob = blobPath(sha256);
+        if (Files.exists(blob)) {
+            // đã có nội dung này
+            Files.deleteIfExists(source);
+        } else {
+            Files.createDirectories(blob.getParent());
+            try {
+                Files.move(source, blob, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileSystemException e) {
+                // upload khác cùng nội dung vừa ghi xong trước
+                if (!Files.exists(blob)) {
+                    throw e;
+                }
+                Files.deleteIfExists(source);
+            }
+        }
+        return new StoredBlob(sha256, size);
+    }
+
+    private Object lockFor(String sha256) {
+        return locks[Math.floorMod(sha256.hashCode(), locks.length)];
+    }
+
+    private Path tempFile() throws IOException {
+        Path dir = root().resolve(CAS_FOLDER).resolve("tmp");
+        Files.createDirectories(dir);
+        return Files.createTempFile(dir, "upload-", ".tmp");
+    }
+
+    private Path blobPath(String sha256) {
+        return root().resolve(CAS_FOLDER).resolve(sha256.substring(0, 2)).resolve(sha256);
+    }
+
+    private Path root() {
+        try {
+            return Paths.get(new URI(baseURI));
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Invalid upload.file.uri " + baseURI, e);
+        }
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.example.VietVibe.service;
+
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.VietVibe.dto.response.MediaJobResponse;
+import com.example.VietVibe.entity.MediaJob;
+import com.example.VietVibe.enums.MediaJobStatus;
+import com.example.VietVibe.exception.AppException;
+import com.example.VietVibe.exception.ErrorCode;
+import com.example.VietVibe.repository.LessonRepository;
+import com.example.VietVibe.repository.MediaJobRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import ws.schild.jave.Encoder;
+import ws.schild.jave.MultimediaObject;
+import ws.schild.jave.encode.AudioAttributes;
+import ws.schild.jave.encode.EncodingAttributes;
+import ws.schild.jave.encode.VideoAttributes;
+import ws.schild.jave.encode.enums.X264_PROFILE;
+import ws.schild.jave.info.MultimediaInfo;
+
+/**
+ * Xử lý video sau upload, ngoài luồng request.
+ *
+ * FileController chỉ lưu file và tạo MediaJob (QUEUED) rồi trả về ngay. Job
+ * được đưa vào pool cố định media.workers luồng với hàng đợi giới hạn; khi
+ * đầy, job vẫn QUEUED trong DB và lượt quét định kỳ sẽ đưa vào lại (cũng là
+ * cách job dang dở được chạy tiếp sau khi khởi động lại). Xong job thì ghi
+ * thời lượng (và playlist HLS nếu bật media.hls) vào các Lesson đang trỏ tới
+ * file đó.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class MediaProcessingService {
+    private static final int MAX_ATTEMPTS = 3;
+    private static final Set<String> WEB_FORMATS = Set.of("mp4", "webm");
+
+    MediaJobRepository mediaJobRepository;
+    LessonRepository lessonRepository;
+    FileService fileService;
+    HlsPackagingService hlsPackagingService;
+    ThumbnailService thumbnailService;
+    ContentHashService contentHashService;
+
+    // id các job đang nằm trong hàng đợi hoặc đang chạy
+    Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    @Value("${media.workers:2}")
+    @NonFinal
+    int workers;
+
+    @Value("${media.queue-capacity:100}")
+    @NonFinal
+    int queueCapacity;
+
+    @Value("${media.transcode:false}")
+    @NonFinal
+    boolean transcode;
+
+    @NonFinal
+    ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadId = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "media-worker-" + threadId.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        // job chưa xong vẫn ở QUEUED/PROCESSING trong DB, lần khởi động sau chạy lại
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    public MediaJob enqueue(String folder, String fileName) {
+        // upload trùng nội dung trả về tên file cũ: dùng lại kết quả đã xử lý
+        Optional<MediaJob> done = findCompletedJob(fileName);
+        if (done.isPresent() && folder.equals(done.get().getFolder())) {
+            return done.get();
+        }
+        MediaJob job = mediaJobRepository.save(MediaJob.builder()
+                .folder(folder)
+                .fileName(fileName)
+                .status(MediaJobStatus.QUEUED)
+                .build());
+        dispatch(job.getId());
+        return job;
+    }
+
+    public MediaJobResponse getJob(String id) {
+        return toResponse(mediaJobRepository.findById(id)
+                .orElseThrow(() -> new AppException(ErrorCode.MEDIA_JOB_NOT_EXISTED)));
+    }
+
+    // Kết quả xử lý của file (dùng khi Lesson được lưu sau khi job xong)
+    public Optional<MediaJob> findCompletedJob(String fileName) {
+        if (fileName == null || fileName.isBlank()) {
+            return Optional.empty();
+        }
+        return mediaJobRepository.findFirstByFileNameAndStatusOrderByFinishedAtDesc(fileName, MediaJobStatus.COMPLETED);
+    }
+
+    // Đưa lại các job còn QUEUED (hàng đợi đầy) hoặc PROCESSING bị bỏ dở
+    @Scheduled(fixedDelayString = "${media.retry-interval-ms:10000}")
+    public void resubmitPending() {
+        int free = queueCapacity - executor.getQueue().size();
+        if (free <= 0) {
+            return;
+        }
+        List<MediaJob> pending = mediaJobRepository.findByStatusInOrderByCreatedAtAsc(
+                List.of(MediaJobStatus.QUEUED, MediaJobStatus.PROCESSING), PageRequest.of(0, free));
+        pending.forEach(job -> dispatch(job.getId()));
+    }
+
+    public static String formatDuration(long seconds) {
+        return String.format("%02d:%02d", seconds / 60, seconds % 60);
+    }
+
+    private void dispatch(String jobId) {
+        if (!inFlight.add(jobId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    process(jobId);
+                } finally {
+                    inFlight.remove(jobId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(jobId);
+            log.debug("Media queue full, job {} stays queued", jobId);
+        }
+    }
+
+    private void process(String jobId) {
+        MediaJob job = mediaJobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() == MediaJobStatus.COMPLETED || job.getStatus() == MediaJobStatus.FAILED) {
+            return;
+        }
+        job.setStatus(MediaJobStatus.PROCESSING);
+        job.setStartedAt(Instant.now());
+        job.setAttempts(job.getAttempts() + 1);
+        mediaJobRepository.save(job);
+
+        try {
+            Path source = fileService.resolve(job.getFolder(), job.getFileName());
+            MultimediaObject media = new MultimediaObject(source.toFile());
+            MultimediaInfo info = media.getInfo();
+            job.setDurationSeconds(Math.max(info.getDuration() / 1000, 0));
+
+            if (transcode && !isWebFormat(job.getFileName())) {
+                job.setWebFileName(transcodeToMp4(media, job));
+            }
+            applyHls(job, source, info);
+            applyThumbnails(job, source, info);
+
+            precomputeHashes(job);
+
+            job.setStatus(MediaJobStatus.COMPLETED);
+            job.setError(null);
+            job.setFinishedAt(Instant.now());
+            mediaJobRepository.save(job);
+
+            int lessons = lessonRepository.applyMediaResult(job.getFileName(), job.getDurationSeconds(),
+                    formatDuration(job.getDurationSeconds()), job.getHlsPath(), job.getPosterPath(),
+                    job.getThumbnailsPath());
+            log.info("Media job {} done: {} ({}s, {} lessons updated)", jobId, job.getFileName(),
+                    job.getDurationSeconds(), lessons);
+        } catch (Exception e) {
+            boolean retry = job.getAttempts() < MAX_ATTEMPTS;
+            job.setStatus(retry ? MediaJobStatus.QUEUED : MediaJobStatus.FAILED);
+            job.setError(truncate(e.getMessage()));
+            job.setFinishedAt(retry ? null : Instant.now());
+            mediaJobRepository.save(job);
+            log.warn("Media job {} failed (attempt {}): {}", jobId, job.getAttempts(), e.getMessage());
+        }
+    }
+
+    // HLS cũng là phần phụ: lỗi thì để hlsPath null, lesson vẫn phát file gốc
+    void applyHls(MediaJob job, Path source, MultimediaInfo info) {
+        if (!hlsPackagingService.isEnabled()) {
+            return;
+        }
+        try {
+            job.setHlsPath(hlsPackagingService.packageVideo(source, info));
+        } catch (Exception e) {
+            log.warn("Skipping HLS for media job {}: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    // Poster/sprite chỉ là phần phụ: lỗi thì bỏ qua, vẫn lưu thời lượng và HLS, không chạy lại job
+    void applyThumbnails(MediaJob job, Path source, MultimediaInfo info) {
+        if (!thumbnailService.isEnabled()) {
+            return;
+        }
+        try {
+            ThumbnailService.Thumbnails thumbnails = thumbnailService.generate(source, info);
+            if (thumbnails != null) {
+                job.setPosterPath(thumbnails.posterPath());
+                job.setThumbnailsPath(thumbnails.thumbnailsPath());
+            }
+        } catch (Exception e) {
+            log.warn("Skipping thumbnails for media job {}: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    // Băm sẵn file gốc và file sinh ra để request đầu tiên đã có ETag
+    private void precomputeHashes(MediaJob job) throws URISyntaxException {
+        contentHashService.precompute(fileService.resolve(job.getFolder(), job.getFileName()));
+        if (job.getWebFileName() != null) {
+            contentHashService.precompute(fileService.resolve(job.getFolder(), job.getWebFileName()));
+        }
+        for (String output : new String[] { job.getHlsPath(), job.getPosterPath(), job.getThumbnailsPath() }) {
+            if (output != null && output.indexOf('/') > 0) {
+                // hls/{tên}/master.m3u8, thumbs/{tên}/sprite.vtt: băm cả thư mục {tên}
+                int slash = output.lastIndexOf('/');
+                int folderEnd = output.indexOf('/');
+                contentHashService.precompute(fileService.resolve(output.substring(0, folderEnd),
+                        output.substring(folderEnd + 1, slash)));
+            }
+        }
+    }
+
+    private String transcodeToMp4(MultimediaObject media, MediaJob job) throws Exception {
+        String baseName = job.getFileName().replaceFirst("\\.[^.]+$", "");
+        String webFileName = baseName + ".web.mp4";
+        Path target = fileService.resolve(job.getFolder(), webFileName);
+
+        AudioAttributes audio = new AudioAttributes();
+        audio.setCodec("aac");
+        audio.setBitRate(128000);
+        audio.setChannels(2);
+        audio.setSamplingRate(44100);
+
+        VideoAttributes video = new VideoAttributes();
+        video.setCodec("h264");
+        video.setX264Profile(X264_PROFILE.MAIN);
+        video.setPixelFormat("yuv420p");
+        video.setFaststart(true);
+
+        EncodingAttributes attrs = new EncodingAttributes();
+        attrs.setOutputFormat("mp4");
+        attrs.setAudioAttributes(audio);
+        attrs.setVideoAttributes(video);
+
+        new Encoder().encode(media, target.toFile(), attrs);
+        return webFileName;
+    }
+
+    private boolean isWebFormat(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 && WEB_FORMATS.contains(fileName.substring(dot + 1).toLowerCase());
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    private MediaJobResponse toResponse(MediaJob job) {
+        return MediaJobResponse.builder()
+                .id(job.getId())
+                .folder(job.getFolder())
+                .fileName(job.getFileName())
+                .status(job.getStatus())
+                .durationSeconds(job.getDurationSeconds())
+                .durationFormatted(formatDuration(job.getDurationSeconds()))
+                .webFileName(job.getWebFileName())
+                .hlsPath(job.getHlsPath())
+                .posterPath(job.getPosterPath())
+                .thumbnailsPath(job.getThumbnailsPath())
+                .error(job.getError())
+                .createdAt(job.getCreatedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+}
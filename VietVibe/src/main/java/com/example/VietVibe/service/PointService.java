@@ -16,9 +16,11 @@ import com.example.VietVibe.repository.PointRepository;
 import com.example.VietVibe.repository.UserRepository;
 import com.example.VietVibe.repository.GameRepository;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -26,11 +28,12 @@ import lombok.extern.slf4j.Slf4j;
 
 import lombok.AccessLevel;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.util.Comparator;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -46,6 +49,14 @@ public class PointService {
 
         PointMapper pointMapper;
 
+        static final int MAX_HISTORY_PAGE_SIZE = 100;
+
+        LeaderboardService leaderboardService;
+
+        UserGameStatsService userGameStatsService;
+
+        GameCounterService gameCounterService;
+
         // ========== PAGED API ==========
         public ApiPagination<PointResponse> getAllPoints(Specification<Point> spec, Pageable pageable) {
                 Page<Point> pagePoint = pointRepository.findAll(spec, pageable);
@@ -143,48 +154,96 @@ public class PointService {
         }
 
         public int getTotalScore(String userId) {
-                User user = userRepository.findById(userId)
-                                .orElseThrow(() -> new RuntimeException("User not found"));
-                List<Point> points = pointRepository.findByUser(user);
-                return points.stream().mapToInt(p -> p.getScore() + p.getBonus()).sum();
+                if (!userRepository.existsById(userId)) {
+                        throw new RuntimeException("User not found");
+                }
+                return userGameStatsService.getTotalScore(userId);
         }
 
-        public List<PointResponse> getHistory(String username) {
+        public ApiPagination<PointResponse> getHistory(String username, String cursor, int size) {
                 User user = userRepository.findByUsername(username)
                                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-                return pointRepository.findByUser(user)
-                                .stream()
-                                .sorted(Comparator.comparing(Point::getCreatedAt).reversed())
-                                .map(pointMapper::toResponse)
-                                .collect(Collectors.toList());
+                int pageSize = Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+                // lấy dư 1 bản ghi để biết còn trang sau hay không
+                Pageable limit = PageRequest.of(0, pageSize + 1);
+
+                List<Point> points;
+                if (cursor == null || cursor.isBlank()) {
+                        points = pointRepository.findHistoryFirstPage(user.getId(), limit);
+                } else {
+                        HistoryCursor after = decodeCursor(cursor);
+                        points = pointRepository.findHistoryAfter(user.getId(), after.createdAt(), after.id(), limit);
+                }
+
+                boolean hasNext = points.size() > pageSize;
+                if (hasNext) {
+                        points = points.subList(0, pageSize);
+                }
+
+                ApiPagination.Meta mt = new ApiPagination.Meta();
+                mt.setPageSize(pageSize);
+                if (hasNext) {
+                        mt.setNextCursor(encodeCursor(points.get(points.size() - 1)));
+                }
+
+                return ApiPagination.<PointResponse>builder()
+                                .meta(mt)
+                                .result(points.stream().map(pointMapper::toResponse).toList())
+                                .build();
+        }
+
+        private record HistoryCursor(LocalDateTime createdAt, Long id) {
+        }
+
+        private String encodeCursor(Point point) {
+                String raw = point.getCreatedAt() + "|" + point.getId();
+                return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
         }
 
+        private HistoryCursor decodeCursor(String cursor) {
+                try {
+                        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                        int sep = raw.lastIndexOf('|');
+                        return new HistoryCursor(LocalDateTime.parse(raw.substring(0, sep)),
+                                        Long.parseLong(raw.substring(sep + 1)));
+                } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+                        throw new AppException(ErrorCode.INVALID_CURSOR);
+                }
+        }
+
+        @Transactional
         public PointResponse updatePoint(PointUpdateRequest request) {
                 Point point = pointRepository.findById(request.getPointId())
                                 .orElseThrow(() -> new RuntimeException("Point not found"));
+                int oldTotal = point.getScore() + point.getBonus();
                 point.setScore(request.getScore());
                 point.setBonus(request.getBonus());
                 point = pointRepository.save(point);
+                leaderboardService.onPointUpdated(point, oldTotal);
+                userGameStatsService.onPointChanged(point);
                 return pointMapper.toResponse(point);
         }
 
+        @Transactional
         public void deletePoint(Long pointId) {
-                pointRepository.deleteById(pointId);
+                pointRepository.findById(pointId).ifPresent(point -> {
+                        pointRepository.delete(point);
+                        leaderboardService.onPointDeleted(point);
+                        userGameStatsService.onPointChanged(point);
+                });
         }
 
+        // Đọc từ leaderboard in-memory thay vì quét toàn bộ bảng point
         public int getMaxScore() {
-                return pointRepository.findAll().stream()
-                                .mapToInt(p -> p.getScore() + p.getBonus())
-                                .max().orElse(0);
+                return leaderboardService.getMaxScore();
         }
 
         public int getMinScore() {
-                return pointRepository.findAll().stream()
-                                .mapToInt(p -> p.getScore() + p.getBonus())
-                                .min().orElse(0);
+                return leaderboardService.getMinScore();
         }
 
+        @Transactional
         public PointResponse addPoint(PointRequest request) {
                 User user = userRepository.findById(request.getUserId())
                                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -198,6 +257,8 @@ public class PointService {
                 Optional<Point> existingPointOpt = pointRepository.findByUserAndGameAndScoreAndBonus(user, game, score,
                                 bonus);
 
+                int oldTotal = existingPointOpt.map(p -> p.getScore() + p.getBonus()).orElse(0);
+
                 Point point = Point.builder()
                                 // Nếu đã tồn tại (isPresent), ta gán ID cũ vào để JPA hiểu là UPDATE thay vì
                                 // INSERT
@@ -212,48 +273,32 @@ public class PointService {
                                 .build();
 
                 point = pointRepository.save(point);
-
-                // Cập nhật bestScore cho game (giữ nguyên logic của bạn)
-                int newScore = point.getScore() + bonus;
-                if (newScore > game.getBestScore()) {
-                        game.setBestScore(newScore);
+                if (existingPointOpt.isPresent()) {
+                        leaderboardService.onPointUpdated(point, oldTotal);
+                } else {
+                        leaderboardService.onPointAdded(point);
+                        userGameStatsService.onPointAdded(point);
                 }
-                
-                // Tăng timesPlayed khi hoàn thành game (tạo point)
-                game.setTimesPlayed(game.getTimesPlayed() + 1);
-                gameRepository.save(game);
-                
+
+                // Cập nhật bestScore và tăng timesPlayed cho game qua bộ đếm (flush theo lô)
+                gameCounterService.recordScore(game.getId(), point.getScore() + bonus);
+                gameCounterService.recordPlay(game.getId());
+
                 return pointMapper.toResponse(point);
         }
 
         public UserStatsResponse getUserStats(String userId) {
-                User user = userRepository.findById(userId)
-                                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
-
-                List<Point> points = pointRepository.findByUser(user);
-
-                // 1. Total Points: Tổng điểm cao nhất của mỗi game (để không bị cộng dồn vô lý)
-                int totalPoints = points.stream()
-                                .collect(Collectors.groupingBy(p -> p.getGame().getId(),
-                                                Collectors.mapping(p -> p.getScore() + p.getBonus(),
-                                                                Collectors.maxBy(Integer::compare))))
-                                .values().stream()
-                                .mapToInt(opt -> opt.orElse(0))
-                                .sum();
-
-                // 2. Games Played: Tổng số lượt chơi (tất cả các bản ghi)
-                int gamesPlayed = points.size();
-
-                // 3. Highest Score: Điểm cao nhất trong một lượt chơi bất kỳ
-                int highestScore = points.stream()
-                                .mapToInt(p -> p.getScore() + p.getBonus())
-                                .max().orElse(0);
-
-                return UserStatsResponse.builder()
-                                .totalPoints(totalPoints)
-                                .gamesPlayed(gamesPlayed)
-                                .highestScore(highestScore)
-                                .build();
+                if (!userRepository.existsById(userId)) {
+                        throw new AppException(ErrorCode.USER_NOT_EXISTED);
+                }
+
+                // totalPoints = tổng điểm cao nhất mỗi game, gamesPlayed = tổng số lượt,
+                // highestScore = điểm cao nhất một lượt; đều lấy từ bảng user_game_stats
+                return userGameStatsService.getUserStats(userId);
+        }
+
+        public int rebuildUserStats() {
+                return userGameStatsService.rebuild();
         }
 
 }
\ No newline at end of file
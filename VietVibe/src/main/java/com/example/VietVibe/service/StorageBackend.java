@@ -0,0 +1,32 @@
+package com.example.VietVibe.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Kho nội dung theo địa chỉ SHA-256. Mỗi nội dung chỉ được lưu một lần (blob);
+ * tên file người dùng thấy (folder/fileName) chỉ là tham chiếu tới blob.
+ */
+public interface StorageBackend {
+
+    record StoredBlob(String sha256, long size) {
+    }
+
+    // Ghi stream vào kho, tính SHA-256 trong lúc ghi; nội dung trùng không được lưu lần hai.
+    // Blob trả về được giữ (pin) tới khi gọi unpin: deleteBlob bỏ qua blob đang được giữ
+    StoredBlob write(InputStream content) throws IOException;
+
+    // Đưa file đã có trên đĩa (vd. upload nhiều phần) vào kho, file gốc bị chuyển đi hoặc xoá; giữ blob như write
+    StoredBlob ingest(Path file) throws IOException;
+
+    void unpin(String sha256);
+
+    // Cho blob xuất hiện dưới tên folder/fileName
+    void link(String sha256, String folder, String fileName) throws IOException;
+
+    void unlink(String folder, String fileName) throws IOException;
+
+    // Xoá blob nếu không có upload nào đang giữ nó; false nếu bỏ qua
+    boolean deleteBlob(String sha256) throws IOException;
+}
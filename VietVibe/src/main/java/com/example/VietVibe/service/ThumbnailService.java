@@ -0,0 +1,203 @@
+package com.example.VietVibe.service;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+import ws.schild.jave.info.MultimediaInfo;
+import ws.schild.jave.info.VideoSize;
+
+/**
+ * Ảnh poster và sprite thumbnail cho video bài học.
+ *
+ * Mỗi video có thư mục upload/thumbs/{tên file}/ gồm poster.jpg (một khung
+ * hình ở khoảng 10% thời lượng), sprite.jpg (lưới ảnh nhỏ, mỗi ảnh cách nhau
+ * interval-seconds) và sprite.vtt (WebVTT ánh xạ thời điểm -> vùng
+ * #xywh trong sprite, dùng cho preview khi rê thanh tua). Các file được ghi
+ * vào thư mục tạm rồi đổi tên vào chỗ, sprite.vtt sau cùng. Poster và sprite
+ * độc lập: phần nào lỗi thì bỏ phần đó (đường dẫn null), không làm hỏng phần
+ * còn lại; lần chạy sau chỉ tạo phần còn thiếu. File đã có không bao giờ bị
+ * ghi đè vì URL của chúng được cache immutable.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class ThumbnailService {
+    public static final String THUMBS_FOLDER = "thumbs";
+    private static final int POSTER_HEIGHT = 720;
+
+    FileService fileService;
+
+    @Value("${media.thumbnails.enabled:false}")
+    @NonFinal
+    boolean enabled;
+
+    @Value("${media.thumbnails.interval-seconds:10}")
+    @NonFinal
+    int intervalSeconds;
+
+    @Value("${media.thumbnails.tile-width:160}")
+    @NonFinal
+    int tileWidth;
+
+    @Value("${media.thumbnails.columns:10}")
+    @NonFinal
+    int columns;
+
+    @Value("${media.thumbnails.max-tiles:100}")
+    @NonFinal
+    int maxTiles;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Tạo poster và sprite cho file nguồn, trả về đường dẫn tương đối với thư
+     * mục upload (null cho phần không tạo được), hoặc null nếu file không có
+     * hình hoặc không tạo được phần nào.
+     */
+    public Thumbnails generate(Path source, MultimediaInfo info) throws IOException, URISyntaxException {
+        if (info.getVideo() == null || info.getVideo().getSize() == null) {
+            return null;
+        }
+        String name = source.getFileName().toString().replaceFirst("\\.[^.]+$", "");
+        String base = THUMBS_FOLDER + "/" + name + "/";
+        Path thumbsRoot = fileService.resolve(THUMBS_FOLDER, "");
+        Files.createDirectories(thumbsRoot);
+        Path target = thumbsRoot.resolve(name);
+        boolean hasPoster = Files.exists(target.resolve("poster.jpg"));
+        boolean hasSprite = Files.exists(target.resolve("sprite.vtt"));
+        if (hasPoster && hasSprite) {
+            return new Thumbnails(base + "poster.jpg", base + "sprite.vtt");
+        }
+        Path work = thumbsRoot.resolve(name + ".tmp");
+        FfmpegRunner.deleteRecursively(work);
+        Files.createDirectories(work);
+
+        try {
+            long durationMs = Math.max(info.getDuration(), 1);
+            VideoSize size = info.getVideo().getSize();
+            int tileHeight = evenHeight(size, tileWidth);
+            // video dài thì giãn khoảng cách để sprite không vượt quá max-tiles ảnh
+            double interval = Math.max(intervalSeconds, durationMs / 1000.0 / maxTiles);
+            int tiles = (int) Math.max(1, Math.min(maxTiles, Math.ceil(durationMs / 1000.0 / interval)));
+            int cols = Math.min(columns, tiles);
+            int rows = (tiles + cols - 1) / cols;
+
+            String input = source.toAbsolutePath().toString();
+            String poster = hasPoster ? base + "poster.jpg" : null;
+            if (!hasPoster && renderPoster(source, input, durationMs, work)) {
+                poster = base + "poster.jpg";
+            }
+            String sprite = hasSprite ? base + "sprite.vtt" : null;
+            if (!hasSprite && renderSprite(source, input, durationMs, interval, tiles, cols, rows, tileHeight, work)) {
+                sprite = base + "sprite.vtt";
+            }
+            boolean newPoster = !hasPoster && poster != null;
+            boolean newSprite = !hasSprite && sprite != null;
+            if (!newPoster && !newSprite) {
+                FfmpegRunner.deleteRecursively(work);
+                return poster == null && sprite == null ? null : new Thumbnails(poster, sprite);
+            }
+
+            // sprite.vtt chuyển sau sprite.jpg: có vtt nghĩa là sprite đã đủ
+            Files.createDirectories(target);
+            for (String file : new String[] { "poster.jpg", "sprite.jpg", "sprite.vtt" }) {
+                if (Files.exists(work.resolve(file))) {
+                    Files.move(work.resolve(file), target.resolve(file), StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+            FfmpegRunner.deleteRecursively(work);
+            log.info("Generated {} for {}", newPoster && newSprite ? "poster and " + tiles + " thumbnails"
+                    : newPoster ? "poster only" : tiles + " thumbnails only", source.getFileName());
+            return new Thumbnails(poster, sprite);
+        } catch (IOException | RuntimeException e) {
+            FfmpegRunner.deleteRecursively(work);
+            throw e;
+        }
+    }
+
+    private boolean renderPoster(Path source, String input, long durationMs, Path work) throws IOException {
+        try {
+            FfmpegRunner.run("poster",
+                    "-ss", String.format(Locale.ROOT, "%.3f", durationMs / 10000.0),
+                    "-i", input,
+                    "-frames:v", "1",
+                    "-vf", "scale=-2:'min(" + POSTER_HEIGHT + ",ih)'",
+                    "-q:v", "3",
+                    "-y", work.resolve("poster.jpg").toString());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Skipping poster for {}: {}", source.getFileName(), e.getMessage());
+            Files.deleteIfExists(work.resolve("poster.jpg"));
+            return false;
+        }
+    }
+
+    private boolean renderSprite(Path source, String input, long durationMs, double interval, int tiles, int cols,
+            int rows, int tileHeight, Path work) throws IOException {
+        try {
+            FfmpegRunner.run("sprite",
+                    "-i", input,
+                    "-vf", "fps=1/" + String.format(Locale.ROOT, "%.3f", interval)
+                            + ",scale=" + tileWidth + ":" + tileHeight
+                            + ",tile=" + cols + "x" + rows,
+                    "-frames:v", "1",
+                    "-q:v", "5",
+                    "-y", work.resolve("sprite.jpg").toString());
+            Files.writeString(work.resolve("sprite.vtt"),
+                    spriteVtt("sprite.jpg", durationMs, interval, tiles, cols, tileWidth, tileHeight),
+                    StandardCharsets.UTF_8);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Skipping thumbnail sprite for {}: {}", source.getFileName(), e.getMessage());
+            Files.deleteIfExists(work.resolve("sprite.jpg"));
+            Files.deleteIfExists(work.resolve("sprite.vtt"));
+            return false;
+        }
+    }
+
+    static String spriteVtt(String sprite, long durationMs, double intervalSeconds, int tiles, int columns,
+            int width, int height) {
+        StringBuilder vtt = new StringBuilder("WEBVTT\n");
+        long step = Math.round(intervalSeconds * 1000);
+        for (int i = 0; i < tiles; i++) {
+            long start = i * step;
+            long end = i == tiles - 1 ? Math.max(durationMs, start + 1) : Math.min((i + 1) * step, durationMs);
+            vtt.append('\n')
+                    .append(timestamp(start)).append(" --> ").append(timestamp(end)).append('\n')
+                    .append(sprite).append("#xywh=")
+                    .append((i % columns) * width).append(',')
+                    .append((i / columns) * height).append(',')
+                    .append(width).append(',').append(height).append('\n');
+        }
+        return vtt.toString();
+    }
+
+    private static String timestamp(long ms) {
+        return String.format(Locale.ROOT, "%02d:%02d:%02d.%03d",
+                ms / 3_600_000, ms / 60_000 % 60, ms / 1000 % 60, ms % 1000);
+    }
+
+    private int evenHeight(VideoSize size, int width) {
+        int height = Math.round((float) size.getHeight() * width / size.getWidth());
+        return Math.max(2, height - height % 2);
+    }
+
+    public record Thumbnails(String posterPath, String thumbnailsPath) {
+    }
+}
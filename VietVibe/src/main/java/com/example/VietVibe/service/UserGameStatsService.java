@@ -0,0 +1,80 @@
+package com.example.VietVibe.service;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.VietVibe.dto.response.UserStatsResponse;
+import com.example.VietVibe.entity.Point;
+import com.example.VietVibe.repository.PointRepository;
+import com.example.VietVibe.repository.UserGameStatsRepository;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Duy trì bảng user_game_stats (điểm cao nhất, số lượt chơi, tổng điểm theo
+ * từng cặp user + game). Các hàm ghi chạy trong transaction của PointService.
+ */
+@Service
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class UserGameStatsService {
+    UserGameStatsRepository userGameStatsRepository;
+    PointRepository pointRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void warmUp() {
+        if (userGameStatsRepository.count() == 0 && pointRepository.count() > 0) {
+            rebuild();
+        }
+    }
+
+    // Dựng lại toàn bộ bảng tổng hợp từ dữ liệu point hiện có
+    @Transactional
+    public int rebuild() {
+        userGameStatsRepository.deleteAllRows();
+        int rows = userGameStatsRepository.rebuildFromPoints();
+        log.info("Rebuilt {} user game stats rows from points", rows);
+        return rows;
+    }
+
+    @Transactional
+    public void onPointAdded(Point point) {
+        userGameStatsRepository.recordPlay(point.getUser().getId(), point.getGame().getId(),
+                point.getScore() + point.getBonus());
+    }
+
+    // Điểm cao nhất có thể giảm khi sửa/xoá nên tính lại riêng cặp (user, game) này
+    @Transactional
+    public void onPointChanged(Point point) {
+        String userId = point.getUser().getId();
+        long gameId = point.getGame().getId();
+        pointRepository.flush();
+        userGameStatsRepository.deleteByUserIdAndGameId(userId, gameId);
+        userGameStatsRepository.recompute(userId, gameId);
+    }
+
+    @Transactional
+    public void onGameDeleted(long gameId) {
+        userGameStatsRepository.deleteByGameId(gameId);
+    }
+
+    public UserStatsResponse getUserStats(String userId) {
+        UserGameStatsRepository.UserTotals totals = userGameStatsRepository.findTotalsByUserId(userId);
+        return UserStatsResponse.builder()
+                .totalPoints((int) totals.getTotalPoints())
+                .gamesPlayed((int) totals.getGamesPlayed())
+                .highestScore(totals.getHighestScore())
+                .build();
+    }
+
+    public int getTotalScore(String userId) {
+        return (int) userGameStatsRepository.sumTotalScoreByUserId(userId);
+    }
+}
@@ -3,16 +3,18 @@ package com.example.VietVibe.service;
 import com.example.VietVibe.entity.Lesson;
 import com.example.VietVibe.entity.User;
 import com.example.VietVibe.entity.UserLesson;
+import com.example.VietVibe.exception.AppException;
+import com.example.VietVibe.exception.ErrorCode;
 import com.example.VietVibe.repository.LessonRepository;
 import com.example.VietVibe.repository.UserLessonRepository;
 import com.example.VietVibe.repository.UserRepository;
-import com.example.VietVibe.util.SecurityUtil;
 
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,37 +27,39 @@ public class UserLessonService {
     UserLessonRepository userLessonRepository;
     LessonRepository lessonRepository;
     UserRepository userRepository;
+    CurrentUserService currentUserService;
 
     @Transactional
     public UserLesson saveProgress(String lessonId, float seconds) {
-        // 1. Lấy username từ Token
-        String username = SecurityUtil.getCurrentUserLogin()
+        // 1-2. Lấy id User từ Token (không đọc bảng users)
+        CurrentUserService.UserSnapshot user = currentUserService.current()
                 .orElseThrow(() -> new RuntimeException("Bạn chưa đăng nhập!"));
 
-        // 2. Tìm User thực sự trong DB dựa trên username (hoặc email)
-        User user = userRepository.findByUsername(username) // Giả sử bạn có method này
-                .orElseThrow(() -> new RuntimeException("Không tìm thấy User: " + username));
-
         // 3. Tìm Lesson thực sự trong DB
         Lesson lesson = lessonRepository.findById(lessonId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy bài học!"));
 
         // 4. Tìm bản ghi tiến độ dựa trên ID thực của User và Lesson
-        UserLesson progress = userLessonRepository.findByUserIdAndLessonId(user.getId(), lessonId)
+        UserLesson progress = userLessonRepository.findByUserIdAndLessonId(user.id(), lessonId)
                 .orElseGet(() -> {
                     UserLesson newProgress = new UserLesson();
-                    newProgress.setUser(user); // Gán nguyên Object User đã tìm thấy
+                    newProgress.setUser(userRepository.getReferenceById(user.id())); // chỉ cần khoá ngoại, không SELECT
                     newProgress.setLesson(lesson); // Gán nguyên Object Lesson đã tìm thấy
                     newProgress.setProgess(seconds); // Mặc định là 0 giây
                     return newProgress;
                 });
 
         progress.setProgess(seconds);
-        return userLessonRepository.save(progress);
+        try {
+            return userLessonRepository.saveAndFlush(progress);
+        } catch (DataIntegrityViolationException e) {
+            // user trong token đã bị xoá ở instance khác / trước khi cache hết hạn
+            throw new AppException(ErrorCode.USER_NOT_EXISTED);
+        }
     }
 
     public Float getProgress(String lessonId) {
-        String currentUser = SecurityUtil.getCurrentUserLogin().orElse("");
+        String currentUser = currentUserService.current().map(CurrentUserService.UserSnapshot::id).orElse("");
         return userLessonRepository.findByUserIdAndLessonId(currentUser, lessonId)
                 .map(UserLesson::getProgess)
                 .orElse((float) 0); // Nếu chưa học bao giờ thì trả về giây thứ 0
@@ -34,6 +34,7 @@ public class UserService {
     UserRepository userRepository;
     UserMapper userMapper;
     PasswordEncoder passwordEncoder;
+    CurrentUserService currentUserService;
     public UserResponse create(UserCreationRequest request) {
         log.info("Create a user");
         User user = this.userMapper.toUser(request);
@@ -66,6 +67,7 @@ public class UserService {
     public UserResponse update(String userId, UserUpdateRequest request) {
         log.info("Update a user");
         User user = userRepository.findById(userId).orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+        String previousUsername = user.getUsername();
 
         userMapper.updateUser(user, request);
         if (request.getPassword() != null) {
@@ -80,7 +82,11 @@ public class UserService {
             }
             user.setUsername(request.getUsername());
         }
-        return userMapper.toUserResponse(userRepository.save(user));
+        UserResponse response = userMapper.toUserResponse(userRepository.save(user));
+        // role/username trong access token đã phát hành không còn đúng
+        currentUserService.evict(previousUsername);
+        currentUserService.evict(user);
+        return response;
     }
 
     public void delete(String userId) {
@@ -88,6 +94,7 @@ public class UserService {
         User user = this.userRepository.findById(userId)
                 .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
         this.userRepository.delete(user);
+        currentUserService.evict(user);
     }
 
     public ApiPagination<UserResponse> getAllUsers(Specification<User> spec, Pageable pageable) {
@@ -138,6 +145,15 @@ public class UserService {
         }
     }
 
+    // Hash mới sau khi đăng nhập thành công với hash cũ (cost thấp hơn hoặc thuật toán khác)
+    public void updateUserPassword(String username, String encodedPassword) {
+        User currentUser = this.handleGetUserByUsername(username);
+        if (currentUser != null) {
+            currentUser.setPassword(encodedPassword);
+            this.userRepository.save(currentUser);
+        }
+    }
+
     public boolean isExistByUsername(String username) {
         return this.userRepository.existsByUsername(username);
     }
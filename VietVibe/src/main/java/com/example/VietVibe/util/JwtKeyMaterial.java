@@ -0,0 +1,335 @@
+package com.example.VietVibe.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.stereotype.Component;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.OctetSequenceKey;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Vòng khoá ký JWT, tra theo kid.
+ *
+ * Mỗi khoá dựng một lần (secret đã decode, MACSigner, MACVerifier) và có kid
+ * là dấu vân tay SHA-256 của secret, ghi vào header token. Khoá ở một trong
+ * hai trạng thái: ACTIVE (dùng để ký, mỗi loại token một khoá) hoặc
+ * VERIFY_ONLY (chỉ dùng để kiểm tra). Toàn bộ vòng là một snapshot bất biến
+ * thay bằng một phép gán volatile, nên JwtDecoder tra kid trong HashMap mà
+ * không cần khoá.
+ *
+ * Khi bật auth.jwt.rotation.enabled, khoá của từng chu kỳ (period-seconds)
+ * được dẫn xuất bằng HMAC-SHA512 từ secret trong cấu hình, nên mọi instance
+ * tự tính ra cùng một vòng mà không phải lưu secret mới ở đâu. Khoá của chu
+ * kỳ sau được công bố (VERIFY_ONLY) trước publish-ahead-seconds để instance
+ * lệch giờ vẫn nhận token của nhau; khoá cũ giữ VERIFY_ONLY cho tới khi token
+ * cuối cùng nó ký hết hạn. Vì vậy đổi khoá không đăng xuất ai: mỗi client chỉ
+ * refresh khi token của chính nó hết hạn, rải đều theo thời điểm phát hành.
+ *
+ * Khi đổi secret gốc, secret cũ đưa vào auth.jwt.previous-secrets-access /
+ * -fresh: khoá dẫn xuất từ nó cho các chu kỳ còn giữ được thêm VERIFY_ONLY,
+ * nên token đang lưu hành (mang kid dẫn xuất) vẫn hợp lệ. Gỡ secret cũ khỏi
+ * cấu hình sau khi thời hạn refresh token đã qua.
+ *
+ * Bản thân các secret gốc (token không có kid hoặc ký trước khi bật xoay
+ * khoá) chỉ còn VERIFY_ONLY tới rotation.started-at + thời hạn token dài
+ * nhất, sau đó bị bỏ khỏi vòng: lộ secret gốc cũ không còn ký được token mà
+ * hệ thống chấp nhận trực tiếp. Khi chưa bật xoay khoá, secret cũ luôn được
+ * giữ VERIFY_ONLY.
+ */
+@Component
+@Slf4j
+public class JwtKeyMaterial {
+    public static final JWSAlgorithm ALGORITHM = JWSAlgorithm.HS512;
+    // chặn trên số khoá cũ mỗi loại khi chu kỳ quá ngắn so với thời hạn token
+    static final int MAX_RETAINED_EPOCHS = 256;
+
+    public enum Purpose {
+        ACCESS, REFRESH
+    }
+
+    public enum KeyState {
+        ACTIVE, VERIFY_ONLY
+    }
+
+    public record SigningKey(String kid, Purpose purpose, KeyState state, SecretKey secret, JWSSigner signer,
+            JWSVerifier verifier) {
+
+        SigningKey withState(KeyState state) {
+            return state == this.state ? this : new SigningKey(kid, purpose, state, secret, signer, verifier);
+        }
+    }
+
+    @Value("${auth.jwt.base64-secret-access}")
+    private String accessSecret;
+
+    @Value("${auth.jwt.base64-secret-fresh}")
+    private String refreshSecret;
+
+    @Value("${auth.jwt.previous-secrets-access:}")
+    private List<String> previousAccessSecrets = List.of();
+
+    @Value("${auth.jwt.previous-secrets-fresh:}")
+    private List<String> previousRefreshSecrets = List.of();
+
+    @Value("${auth.jwt.access-token-validity-in-seconds}")
+    private long accessTokenValiditySeconds;
+
+    @Value("${auth.jwt.refresh-token-validity-in-seconds}")
+    private long refreshTokenValiditySeconds;
+
+    @Value("${auth.jwt.rotation.enabled:false}")
+    private boolean rotationEnabled;
+
+    @Value("${auth.jwt.rotation.period-seconds:604800}")
+    private long rotationPeriodSeconds;
+
+    @Value("${auth.jwt.rotation.publish-ahead-seconds:3600}")
+    private long publishAheadSeconds;
+
+    // ISO-8601, thời điểm bật xoay khoá; để trống thì tính từ lúc khởi động
+    @Value("${auth.jwt.rotation.started-at:}")
+    private String rotationStartedAt = "";
+
+    private SigningKey masterAccess;
+    private SigningKey masterRefresh;
+    private List<SigningKey> staticKeys;
+    // secret gốc cũ, chỉ để dẫn xuất khoá VERIFY_ONLY
+    private List<SigningKey> previousMasters;
+    // sau mốc này secret gốc (và secret cũ) không còn được dùng trực tiếp
+    private Instant rawKeysRetireAt;
+    // khoá dẫn xuất theo (secret gốc, loại, chu kỳ), dùng lại giữa các lần xoay
+    private final Map<String, SigningKey> derived = new HashMap<>();
+
+    private volatile Ring ring;
+    private NimbusJwtDecoder refreshDecoder;
+
+    @PostConstruct
+    public void init() throws JOSEException {
+        masterAccess = keyOf(Base64.getDecoder().decode(accessSecret.trim()), Purpose.ACCESS, KeyState.ACTIVE);
+        masterRefresh = keyOf(Base64.getDecoder().decode(refreshSecret.trim()), Purpose.REFRESH, KeyState.ACTIVE);
+        List<SigningKey> keys = new ArrayList<>();
+        for (String secret : previousAccessSecrets) {
+            if (!secret.isBlank()) {
+                keys.add(keyOf(Base64.getDecoder().decode(secret.trim()), Purpose.ACCESS, KeyState.VERIFY_ONLY));
+            }
+        }
+        for (String secret : previousRefreshSecrets) {
+            if (!secret.isBlank()) {
+                keys.add(keyOf(Base64.getDecoder().decode(secret.trim()), Purpose.REFRESH, KeyState.VERIFY_ONLY));
+            }
+        }
+        staticKeys = List.copyOf(keys);
+        previousMasters = staticKeys;
+
+        Instant startedAt = Instant.now();
+        if (rotationStartedAt != null && !rotationStartedAt.isBlank()) {
+            startedAt = Instant.parse(rotationStartedAt.trim());
+        } else if (rotationEnabled) {
+            log.warn("auth.jwt.rotation.started-at is not set, keeping raw JWT secrets until {} after startup",
+                    Duration.ofSeconds(Math.max(accessTokenValiditySeconds, refreshTokenValiditySeconds)));
+        }
+        rawKeysRetireAt = startedAt.plusSeconds(Math.max(accessTokenValiditySeconds, refreshTokenValiditySeconds));
+
+        rotate(Instant.now());
+        refreshDecoder = buildRefreshDecoder();
+        log.info("JWT keys loaded: access {}, refresh {}, {} total, rotation {}", ring.access().kid(),
+                ring.refresh().kid(), ring.byKid().size(), rotationEnabled ? "enabled" : "disabled");
+    }
+
+    public SigningKey access() {
+        return ring.access();
+    }
+
+    public SigningKey refresh() {
+        return ring.refresh();
+    }
+
+    public NimbusJwtDecoder refreshDecoder() {
+        return refreshDecoder;
+    }
+
+    /**
+     * Verifier cho token có kid và loại đã cho; null nếu kid lạ hoặc khoá
+     * thuộc loại khác. Token phát hành trước khi có kid dùng secret trong cấu
+     * hình.
+     */
+    public JWSVerifier verifier(String kid, boolean refreshToken) {
+        if (kid == null) {
+            // secret gốc đã bị bỏ khỏi vòng thì token không kid cũng bị từ chối
+            kid = (refreshToken ? masterRefresh : masterAccess).kid();
+        }
+        SigningKey key = ring.byKid().get(kid);
+        Purpose purpose = refreshToken ? Purpose.REFRESH : Purpose.ACCESS;
+        return key != null && key.purpose() == purpose ? key.verifier() : null;
+    }
+
+    // Kiểm tra định kỳ mốc chu kỳ; vòng chỉ được dựng lại khi tập khoá đổi
+    @Scheduled(fixedDelayString = "${auth.jwt.rotation.check-interval-ms:60000}")
+    public void rotate() throws JOSEException {
+        if (rotationEnabled) {
+            rotate(Instant.now());
+        }
+    }
+
+    synchronized void rotate(Instant now) throws JOSEException {
+        if (!rotationEnabled) {
+            if (ring == null) {
+                ring = Ring.of(masterAccess, masterRefresh, staticKeys);
+            }
+            return;
+        }
+        long period = Math.max(1, rotationPeriodSeconds);
+        long epoch = Math.floorDiv(now.getEpochSecond(), period);
+        boolean publishNext = now.getEpochSecond() >= (epoch + 1) * period - publishAheadSeconds;
+
+        boolean keepRawKeys = now.isBefore(rawKeysRetireAt);
+
+        List<SigningKey> verifyOnly = new ArrayList<>();
+        if (keepRawKeys) {
+            verifyOnly.add(masterAccess.withState(KeyState.VERIFY_ONLY));
+            verifyOnly.add(masterRefresh.withState(KeyState.VERIFY_ONLY));
+            verifyOnly.addAll(staticKeys);
+        }
+        SigningKey access = null;
+        SigningKey refresh = null;
+        for (Purpose purpose : Purpose.values()) {
+            long lifetime = purpose == Purpose.ACCESS ? accessTokenValiditySeconds : refreshTokenValiditySeconds;
+            // token ký trong chu kỳ k hết hạn muộn nhất lúc (k + 1) * period + lifetime
+            long retained = Math.min(MAX_RETAINED_EPOCHS, Math.max(0, (lifetime + period - 1) / period));
+            SigningKey master = purpose == Purpose.ACCESS ? masterAccess : masterRefresh;
+            for (long k = epoch - retained; k <= epoch; k++) {
+                if (k < epoch && (k + 1) * period + lifetime <= now.getEpochSecond()) {
+                    continue;
+                }
+                if (k < epoch) {
+                    verifyOnly.add(derive(master, k).withState(KeyState.VERIFY_ONLY));
+                }
+                // token ký bằng secret gốc trước khi đổi vẫn mang kid dẫn xuất từ secret cũ
+                for (SigningKey previous : previousMasters) {
+                    if (previous.purpose() == purpose) {
+                        verifyOnly.add(derive(previous, k).withState(KeyState.VERIFY_ONLY));
+                    }
+                }
+            }
+            if (publishNext) {
+                verifyOnly.add(derive(master, epoch + 1).withState(KeyState.VERIFY_ONLY));
+            }
+            SigningKey active = derive(master, epoch);
+            if (purpose == Purpose.ACCESS) {
+                access = active;
+            } else {
+                refresh = active;
+            }
+        }
+        Ring next = Ring.of(access, refresh, verifyOnly);
+        if (ring != null && ring.byKid().keySet().equals(next.byKid().keySet())
+                && ring.access() == next.access() && ring.refresh() == next.refresh()) {
+            return;
+        }
+        if (ring != null && ring.access() != next.access()) {
+            log.info("Rotated JWT signing keys: access {}, refresh {}", next.access().kid(), next.refresh().kid());
+        }
+        if (ring != null && !keepRawKeys && ring.byKid().containsKey(masterAccess.kid())) {
+            log.info("Retired raw JWT secrets, only derived keys are accepted from now on");
+        }
+        ring = next;
+        // khoá ngoài cửa sổ được bỏ khỏi bộ nhớ đệm
+        derived.values().removeIf(key -> !next.byKid().containsKey(key.kid()));
+    }
+
+    private SigningKey derive(SigningKey master, long epoch) throws JOSEException {
+        String label = master.purpose().name().toLowerCase() + ":" + epoch;
+        String cacheKey = master.kid() + "/" + label;
+        SigningKey key = derived.get(cacheKey);
+        if (key == null) {
+            byte[] secret;
+            try {
+                Mac mac = Mac.getInstance("HmacSHA512");
+                mac.init(master.secret());
+                secret = mac.doFinal(("vietvibe-jwt:" + label).getBytes(StandardCharsets.US_ASCII));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+            key = keyOf(secret, master.purpose(), KeyState.ACTIVE);
+            derived.put(cacheKey, key);
+        }
+        return key.withState(KeyState.ACTIVE);
+    }
+
+    // Decoder dựng một lần; JWKSource đọc tập khoá refresh của vòng hiện tại
+    private NimbusJwtDecoder buildRefreshDecoder() {
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(ALGORITHM,
+                (selector, context) -> selector.select(ring.refreshJwks())));
+        // exp/nbf do validator của NimbusJwtDecoder kiểm tra, giống NimbusJwtDecoder.withSecretKey
+        processor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        return new NimbusJwtDecoder(processor);
+    }
+
+    private static SigningKey keyOf(byte[] bytes, Purpose purpose, KeyState state) throws JOSEException {
+        return new SigningKey(kidOf(bytes), purpose, state,
+                new SecretKeySpec(bytes, 0, bytes.length, SecurityUtil.JWT_ALGORITHM.getName()),
+                new MACSigner(bytes), new MACVerifier(bytes));
+    }
+
+    // 16 ký tự base64url đầu của SHA-256(secret): ổn định qua các lần khởi động, không lộ secret
+    private static String kidOf(byte[] secret) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret);
+            return new String(Base64.getUrlEncoder().withoutPadding().encode(digest), StandardCharsets.US_ASCII)
+                    .substring(0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Ring(SigningKey access, SigningKey refresh, Map<String, SigningKey> byKid, JWKSet refreshJwks) {
+
+        static Ring of(SigningKey access, SigningKey refresh, List<SigningKey> verifyOnly) {
+            Map<String, SigningKey> keys = new HashMap<>();
+            keys.put(access.kid(), access);
+            keys.put(refresh.kid(), refresh);
+            for (SigningKey key : verifyOnly) {
+                keys.putIfAbsent(key.kid(), key);
+            }
+            List<JWK> jwks = new ArrayList<>();
+            for (SigningKey key : keys.values()) {
+                if (key.purpose() == Purpose.REFRESH) {
+                    jwks.add(new OctetSequenceKey.Builder(key.secret()).keyID(key.kid()).build());
+                }
+            }
+            return new Ring(access, refresh, Map.copyOf(keys), new JWKSet(jwks));
+        }
+    }
+}
@@ -7,35 +7,25 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
 import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.jwt.JwtEncoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.stereotype.Service;
 
 import com.example.VietVibe.dto.response.AuthenticationResponse;
 import com.example.VietVibe.dto.response.UserInToken;
 import com.example.VietVibe.dto.response.UserResponse;
 import com.nimbusds.jose.JOSEException;
-import com.nimbusds.jose.JWSAlgorithm;
 import com.nimbusds.jose.JWSHeader;
-import com.nimbusds.jose.crypto.MACSigner;
-import com.nimbusds.jose.util.Base64;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
 
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.NonFinal;
 import lombok.extern.slf4j.Slf4j;
 
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
 import java.util.Optional;
-
-import javax.crypto.SecretKey;
-import javax.crypto.spec.SecretKeySpec;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -44,14 +34,6 @@ public class SecurityUtil {
     @NonFinal
     public static final MacAlgorithm JWT_ALGORITHM = MacAlgorithm.HS512;
 
-    @Value("${auth.jwt.base64-secret-access}")
-    @NonFinal
-    private String jwtKey;
-
-    @Value("${auth.jwt.base64-secret-fresh}")
-    @NonFinal
-    private String jwtKeyRefresh;
-
     @Value("${auth.jwt.access-token-validity-in-seconds}")
     @NonFinal
     private long accessTokenExpiration;
@@ -60,11 +42,11 @@ public class SecurityUtil {
     @NonFinal
     private long refreshTokenExpiration;
 
-    final JwtEncoder accessTokenEncoder;
-    final JwtEncoder refreshTokenEncoder;
+    final JwtKeyMaterial jwtKeyMaterial;
 
     public String createAccessToken(String username, UserResponse dto) throws JOSEException {
-        JWSHeader header = new JWSHeader(JWSAlgorithm.HS512);
+        JwtKeyMaterial.SigningKey key = jwtKeyMaterial.access();
+        JWSHeader header = new JWSHeader.Builder(JwtKeyMaterial.ALGORITHM).keyID(key.kid()).build();
         // user info inside token
         UserInToken user = UserInToken.builder()
                 .id(dto.getId())
@@ -76,23 +58,24 @@ public class SecurityUtil {
         Instant validity = now.plus(accessTokenExpiration, ChronoUnit.SECONDS);
         // @formatter:off
         JWTClaimsSet claims = new JWTClaimsSet.Builder()
+        .jwtID(UUID.randomUUID().toString())
         .subject(username)
         .claim("user", user)
         .issueTime(Date.from(now))
         .expirationTime(Date.from(validity))
         .build();
+        // @formatter:on
         SignedJWT signedJWT = new SignedJWT(header, claims);
-                // Sign the JWT with the secret key
-                MACSigner signer = new MACSigner(java.util.Base64.getDecoder().decode(jwtKey));
-                signedJWT.sign(signer);
-        
-                return signedJWT.serialize();
-    }
 
-    
+        // Sign the JWT with the prebuilt signer
+        signedJWT.sign(key.signer());
+
+        return signedJWT.serialize();
+    }
 
     public String createRefreshToken(String username, AuthenticationResponse dto) throws JOSEException {
-        JWSHeader header = new JWSHeader(JWSAlgorithm.HS512);
+        JwtKeyMaterial.SigningKey key = jwtKeyMaterial.refresh();
+        JWSHeader header = new JWSHeader.Builder(JwtKeyMaterial.ALGORITHM).keyID(key.kid()).build();
         UserInToken user = UserInToken.builder()
             .id(dto.getUser().getId())
             .username(username)
@@ -103,6 +86,7 @@ public class SecurityUtil {
         Instant validity = now.plus(refreshTokenExpiration, ChronoUnit.SECONDS);
 
         JWTClaimsSet claims = new JWTClaimsSet.Builder()
+            .jwtID(UUID.randomUUID().toString())
             .subject(username)
             .claim("user", user)
             .claim("token_type", "refresh")
@@ -112,29 +96,16 @@ public class SecurityUtil {
 
         SignedJWT signedJWT = new SignedJWT(header, claims);
 
-        // Sign the JWT with the secret key
-        MACSigner signer = new MACSigner(java.util.Base64.getDecoder().decode(jwtKeyRefresh));
-        signedJWT.sign(signer);
+        // Sign the JWT with the prebuilt signer
+        signedJWT.sign(key.signer());
 
         return signedJWT.serialize();
     }
 
 
-    private SecretKey getSecretKey() {
-        byte[] keyBytes = Base64.from(jwtKey).decode();
-        return new SecretKeySpec(keyBytes, 0, keyBytes.length, JWT_ALGORITHM.getName());
-    }
-
-    private SecretKey getSecretKeyRefresh() {
-        byte[] keyBytes = Base64.from(jwtKeyRefresh).decode();
-        return new SecretKeySpec(keyBytes, 0, keyBytes.length, JWT_ALGORITHM.getName());
-    }
-
     public Jwt checkValidRefreshToken(String token){
-        NimbusJwtDecoder jwtDecoder = NimbusJwtDecoder.withSecretKey(getSecretKeyRefresh())
-                .macAlgorithm(SecurityUtil.JWT_ALGORITHM).build();
                 try {
-                     return jwtDecoder.decode(token);
+                     return jwtKeyMaterial.refreshDecoder().decode(token);
                 } catch (Exception e) {
                     System.out.println(">>> Refresh token error: " + e.getMessage());
                     throw e;
@@ -142,16 +113,7 @@ public class SecurityUtil {
     }
 
     public String getUsernameFromRefreshToken(String refreshToken) {
-        return (String) Jwts.parser()
-                .verifyWith(getRefreshKey())
-                .build()
-                .parseSignedClaims(refreshToken)
-                .getPayload()
-                .get("username");
-    }
-
-       private SecretKey getRefreshKey() {
-        return Keys.hmacShaKeyFor(jwtKeyRefresh.getBytes(StandardCharsets.UTF_8));
+        return checkValidRefreshToken(refreshToken).getSubject();
     }
 
     /**
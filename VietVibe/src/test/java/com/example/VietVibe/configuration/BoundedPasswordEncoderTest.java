@@ -0,0 +1,80 @@
+package com.example.VietVibe.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.VietVibe.exception.AppException;
+import com.example.VietVibe.exception.ErrorCode;
+
+class BoundedPasswordEncoderTest {
+
+	@Test
+	void legacyHashesMatchAndAreUpgraded() {
+		PasswordEncoder encoder = new SecurityConfiguration().passwordEncoder("bcrypt", 4, 1, 4, 5000);
+		String legacy = new BCryptPasswordEncoder(4).encode("123456");
+
+		assertThat(encoder.matches("123456", legacy)).isTrue();
+		assertThat(encoder.upgradeEncoding(legacy)).isTrue();
+
+		String current = encoder.encode("123456");
+		assertThat(current).startsWith("{bcrypt}");
+		assertThat(encoder.matches("123456", current)).isTrue();
+		assertThat(encoder.upgradeEncoding(current)).isFalse();
+	}
+
+	@Test
+	void rejectsWithTooManyRequestsWhenSaturated() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BlockingEncoder(started, release), 1, 1, 5000);
+		try {
+			CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+			started.await(5, TimeUnit.SECONDS);
+			CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+			while (encoder.stats().queued() == 0) {
+				Thread.onSpinWait();
+			}
+
+			assertThatThrownBy(() -> encoder.encode("c"))
+					.isInstanceOf(AppException.class)
+					.extracting(e -> ((AppException) e).getErrorCode())
+					.isEqualTo(ErrorCode.TOO_MANY_REQUESTS);
+
+			release.countDown();
+			assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("a");
+			assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("b");
+			assertThat(encoder.stats().hashed()).isEqualTo(2);
+			assertThat(encoder.stats().rejected()).isEqualTo(1);
+		} finally {
+			release.countDown();
+			encoder.shutdown();
+		}
+	}
+
+	private record BlockingEncoder(CountDownLatch started, CountDownLatch release) implements PasswordEncoder {
+
+		@Override
+		public String encode(CharSequence rawPassword) {
+			started.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return rawPassword.toString();
+		}
+
+		@Override
+		public boolean matches(CharSequence rawPassword, String encodedPassword) {
+			return rawPassword.toString().equals(encodedPassword);
+		}
+	}
+}
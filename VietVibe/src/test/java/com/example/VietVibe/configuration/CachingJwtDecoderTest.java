@@ -0,0 +1,95 @@
+package com.example.VietVibe.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+class CachingJwtDecoderTest {
+
+	private static final byte[] ACCESS_KEY = key(1);
+	private static final byte[] REFRESH_KEY = key(2);
+
+	CachingJwtDecoder decoder;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		MACVerifier access = new MACVerifier(ACCESS_KEY);
+		decoder = new CachingJwtDecoder(JWSAlgorithm.HS512, kid -> access, 100, Duration.ofMinutes(5));
+	}
+
+	@Test
+	void verifiedTokenIsServedFromCache() throws Exception {
+		String token = sign(ACCESS_KEY, null, Instant.now().plus(1, ChronoUnit.HOURS));
+
+		Jwt first = decoder.decode(token);
+		Jwt second = decoder.decode(token);
+
+		assertThat(first.getSubject()).isEqualTo("user@vietvibe.vn");
+		assertThat(second).isSameAs(first);
+	}
+
+	@Test
+	void refreshTokenIsNotAcceptedAsBearerToken() throws Exception {
+		String refresh = sign(REFRESH_KEY, "refresh", Instant.now().plus(1, ChronoUnit.HOURS));
+		assertThatThrownBy(() -> decoder.decode(refresh)).isInstanceOf(BadJwtException.class);
+
+		// kể cả khi chữ ký khớp khoá access
+		String signedWithAccessKey = sign(ACCESS_KEY, "refresh", Instant.now().plus(1, ChronoUnit.HOURS));
+		assertThatThrownBy(() -> decoder.decode(signedWithAccessKey)).isInstanceOf(BadJwtException.class);
+	}
+
+	@Test
+	void tamperedPayloadWithCachedSignatureIsRejected() throws Exception {
+		String token = sign(ACCESS_KEY, null, Instant.now().plus(1, ChronoUnit.HOURS));
+		decoder.decode(token);
+
+		String[] parts = token.split("\\.");
+		String other = sign(ACCESS_KEY, "other", Instant.now().plus(1, ChronoUnit.HOURS)).split("\\.")[1];
+		String tampered = parts[0] + "." + other + "." + parts[2];
+
+		assertThatThrownBy(() -> decoder.decode(tampered)).isInstanceOf(BadJwtException.class);
+	}
+
+	@Test
+	void expiredTokenIsRejected() throws Exception {
+		String token = sign(ACCESS_KEY, null, Instant.now().minus(1, ChronoUnit.HOURS));
+
+		assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(JwtValidationException.class);
+	}
+
+	private static String sign(byte[] key, String tokenType, Instant exp) throws Exception {
+		JWTClaimsSet claims = new JWTClaimsSet.Builder()
+				.subject("user@vietvibe.vn")
+				.claim("token_type", tokenType)
+				.issueTime(Date.from(exp.minus(2, ChronoUnit.HOURS)))
+				.expirationTime(Date.from(exp))
+				.build();
+		SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.HS512), claims);
+		jwt.sign(new MACSigner(key));
+		return jwt.serialize();
+	}
+
+	private static byte[] key(int fill) {
+		byte[] key = new byte[64];
+		Arrays.fill(key, (byte) fill);
+		return key;
+	}
+}
@@ -0,0 +1,78 @@
+package com.example.VietVibe.controller;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.VietVibe.configuration.CorsConfig;
+import com.example.VietVibe.configuration.CustomAuthenticationEntryPoint;
+import com.example.VietVibe.configuration.SecurityConfiguration;
+import com.example.VietVibe.configuration.SecurityJwtConfiguration;
+import com.example.VietVibe.dto.response.AuthenticationResponse;
+import com.example.VietVibe.dto.response.UserResponse;
+import com.example.VietVibe.service.AuthenticationService;
+import com.example.VietVibe.service.CachePolicyService;
+import com.example.VietVibe.service.ContentHashService;
+import com.example.VietVibe.service.InvalidatedTokenService;
+import com.example.VietVibe.util.JwtKeyMaterial;
+import com.example.VietVibe.util.SecurityUtil;
+
+@WebMvcTest(AuthenticationController.class)
+@Import({ SecurityConfiguration.class, SecurityJwtConfiguration.class, CustomAuthenticationEntryPoint.class,
+		CorsConfig.class, JwtKeyMaterial.class, SecurityUtil.class })
+class AuthenticationControllerTest {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	SecurityUtil securityUtil;
+
+	@MockitoBean
+	AuthenticationService authenticationService;
+
+	@MockitoBean
+	InvalidatedTokenService invalidatedTokenService;
+
+	@MockitoBean
+	ContentHashService contentHashService;
+
+	@MockitoBean
+	CachePolicyService cachePolicyService;
+
+	@Test
+	void accessTokenIsAcceptedOnProtectedEndpoint() throws Exception {
+		when(authenticationService.getAccount()).thenReturn(ResponseEntity.ok(user()));
+		String accessToken = securityUtil.createAccessToken("hoa@vietvibe.vn", user());
+
+		mockMvc.perform(get("/auth/account").header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void refreshTokenIsRejectedOnProtectedEndpoint() throws Exception {
+		AuthenticationResponse login = new AuthenticationResponse();
+		login.setUser(user());
+		String refreshToken = securityUtil.createRefreshToken("hoa@vietvibe.vn", login);
+
+		mockMvc.perform(get("/auth/account").header(HttpHeaders.AUTHORIZATION, "Bearer " + refreshToken))
+				.andExpect(status().isUnauthorized());
+	}
+
+	private static UserResponse user() {
+		UserResponse user = new UserResponse();
+		user.setId("u-1");
+		user.setUsername("hoa@vietvibe.vn");
+		user.setRole("USER");
+		return user;
+	}
+}
@@ -0,0 +1,122 @@
+package com.example.VietVibe.controller;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.VietVibe.configuration.CorsConfig;
+import com.example.VietVibe.configuration.CustomAuthenticationEntryPoint;
+import com.example.VietVibe.configuration.SecurityConfiguration;
+import com.example.VietVibe.configuration.SecurityJwtConfiguration;
+import com.example.VietVibe.repository.StoredFileRepository;
+import com.example.VietVibe.service.CachePolicyService;
+import com.example.VietVibe.service.ChunkedUploadService;
+import com.example.VietVibe.service.ContentHashService;
+import com.example.VietVibe.service.FileService;
+import com.example.VietVibe.service.InvalidatedTokenService;
+import com.example.VietVibe.service.MediaProcessingService;
+import com.example.VietVibe.service.MediaStreamService;
+import com.example.VietVibe.service.StorageBackend;
+import com.example.VietVibe.util.JwtKeyMaterial;
+import com.example.VietVibe.util.SecurityUtil;
+
+@WebMvcTest(FileController.class)
+@Import({ SecurityConfiguration.class, SecurityJwtConfiguration.class, CustomAuthenticationEntryPoint.class,
+		CorsConfig.class, JwtKeyMaterial.class, SecurityUtil.class, FileService.class, MediaStreamService.class })
+class FileControllerTest {
+
+	@TempDir
+	static Path uploadDir;
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@MockitoBean
+	StorageBackend storageBackend;
+
+	@MockitoBean
+	StoredFileRepository storedFileRepository;
+
+	@MockitoBean
+	MediaProcessingService mediaProcessingService;
+
+	@MockitoBean
+	ChunkedUploadService chunkedUploadService;
+
+	@MockitoBean
+	ContentHashService contentHashService;
+
+	@MockitoBean
+	CachePolicyService cachePolicyService;
+
+	@MockitoBean
+	InvalidatedTokenService invalidatedTokenService;
+
+	@DynamicPropertySource
+	static void uploadUri(DynamicPropertyRegistry registry) {
+		registry.add("upload.file.uri", () -> uploadDir.toUri().toString());
+	}
+
+	@BeforeAll
+	static void files() throws Exception {
+		Files.writeString(Files.createDirectories(uploadDir.resolve(".cas")).resolve("etag-index"),
+				"abc\t3\t0\tvideo/lesson.mp4\n");
+		Files.writeString(Files.createDirectories(uploadDir.resolve("video")).resolve("lesson.mp4"), "video");
+	}
+
+	@BeforeEach
+	void setUp() {
+		when(cachePolicyService.forFolder(anyString())).thenReturn(CacheControl.noCache());
+	}
+
+	@Test
+	void downloadsVisibleFile() throws Exception {
+		mockMvc.perform(get("/files").param("folder", "video").param("fileName", "lesson.mp4"))
+				.andExpect(status().isOk())
+				.andExpect(content().string("video"));
+		mockMvc.perform(get("/files/stream/video/lesson.mp4"))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void chunkedUploadRequiresAuthentication() throws Exception {
+		mockMvc.perform(post("/files/uploads").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"fileName\":\"a.mp4\",\"folder\":\"video\",\"size\":4294967296}"))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(put("/files/uploads/u-1/chunks/0").content(new byte[16]))
+				.andExpect(status().isUnauthorized());
+		verifyNoInteractions(chunkedUploadService);
+	}
+
+	@Test
+	void refusesDotPrefixedPaths() throws Exception {
+		mockMvc.perform(get("/files").param("folder", ".cas").param("fileName", "etag-index"))
+				.andExpect(status().isNotFound());
+		mockMvc.perform(get("/files").param("folder", "video").param("fileName", "../.cas/etag-index"))
+				.andExpect(status().isNotFound());
+		mockMvc.perform(get("/files/stream/.cas/etag-index"))
+				.andExpect(status().isNotFound());
+	}
+}
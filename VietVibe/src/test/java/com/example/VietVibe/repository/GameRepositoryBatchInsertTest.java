@@ -0,0 +1,78 @@
+package com.example.VietVibe.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import com.example.VietVibe.entity.Answer;
+import com.example.VietVibe.entity.Game;
+import com.example.VietVibe.entity.Question;
+import com.example.VietVibe.enums.GameType;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class GameRepositoryBatchInsertTest {
+
+	private static final int QUESTIONS = 50;
+	private static final int ANSWERS_PER_QUESTION = 4;
+
+	@Autowired
+	GameRepository gameRepository;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void createLargeGameUsesBatchedInserts() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		gameRepository.saveAndFlush(buildGame());
+
+		long rows = 1 + QUESTIONS + QUESTIONS * ANSWERS_PER_QUESTION;
+		assertThat(statistics.getEntityInsertCount()).isEqualTo(rows);
+		// Không batch: mỗi dòng một câu INSERT (251). Có batch + sequence pooled: vài lô
+		// cho mỗi bảng cộng vài lần lấy sequence.
+		assertThat(statistics.getPrepareStatementCount()).isLessThan(25);
+	}
+
+	private Game buildGame() {
+		Game game = Game.builder()
+				.name("Batch game")
+				.type(GameType.MULTIPLE_CHOICE)
+				.totalQuestion(QUESTIONS)
+				.questions(new ArrayList<>())
+				.points(new ArrayList<>())
+				.build();
+
+		for (int i = 0; i < QUESTIONS; i++) {
+			Question question = Question.builder()
+					.content("Question " + i)
+					.game(game)
+					.answers(new ArrayList<>())
+					.build();
+			List<Answer> answers = question.getAnswers();
+			for (int j = 0; j < ANSWERS_PER_QUESTION; j++) {
+				answers.add(Answer.builder()
+						.content("Answer " + j)
+						.isCorrect(j == 0)
+						.orderIndex(j)
+						.question(question)
+						.build());
+			}
+			game.getQuestions().add(question);
+		}
+		return game;
+	}
+}
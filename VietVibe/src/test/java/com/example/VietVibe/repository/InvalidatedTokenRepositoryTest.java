@@ -0,0 +1,44 @@
+package com.example.VietVibe.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import com.example.VietVibe.entity.InvalidatedToken;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class InvalidatedTokenRepositoryTest {
+
+	@Autowired
+	InvalidatedTokenRepository invalidatedTokenRepository;
+
+	@Test
+	void sweepDeletesOnlyEndedBucketsInBatches() {
+		Instant now = Instant.now();
+		for (int i = 0; i < 5; i++) {
+			save("expired-" + i, now.minus(2 + i, ChronoUnit.HOURS));
+		}
+		save("live", now.plus(1, ChronoUnit.HOURS));
+		invalidatedTokenRepository.flush();
+
+		long bucket = InvalidatedToken.bucketOf(now);
+		assertThat(invalidatedTokenRepository.deleteExpiredBatch(bucket, 3)).isEqualTo(3);
+		assertThat(invalidatedTokenRepository.deleteExpiredBatch(bucket, 3)).isEqualTo(2);
+		assertThat(invalidatedTokenRepository.deleteExpiredBatch(bucket, 3)).isZero();
+
+		assertThat(invalidatedTokenRepository.findAll())
+				.extracting(InvalidatedToken::getId)
+				.containsExactly("live");
+	}
+
+	private void save(String id, Instant expiresAt) {
+		invalidatedTokenRepository.save(InvalidatedToken.builder().id(id).expiresAt(expiresAt).build());
+	}
+}
@@ -0,0 +1,230 @@
+package com.example.VietVibe.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.VietVibe.dto.request.UploadInitRequest;
+import com.example.VietVibe.dto.response.UploadSessionResponse;
+import com.example.VietVibe.exception.AppException;
+import com.example.VietVibe.exception.ErrorCode;
+
+class ChunkedUploadServiceTest {
+
+	private static final int CHUNK = 256 * 1024;
+
+	@TempDir
+	Path uploadDir;
+
+	ChunkedUploadService chunkedUploadService;
+
+	byte[] content;
+
+	@BeforeEach
+	void setUp() {
+		FileService fileService = new FileService(null, null);
+		ReflectionTestUtils.setField(fileService, "baseURI", uploadDir.toUri().toString());
+		chunkedUploadService = new ChunkedUploadService(fileService);
+		ReflectionTestUtils.setField(chunkedUploadService, "defaultChunkSize", CHUNK);
+		ReflectionTestUtils.setField(chunkedUploadService, "maxSize", 1L << 30);
+		ReflectionTestUtils.setField(chunkedUploadService, "maxSessions", 10);
+		ReflectionTestUtils.setField(chunkedUploadService, "maxSessionsPerUser", 2);
+		ReflectionTestUtils.setField(chunkedUploadService, "maxReservedBytes", 1L << 30);
+		login("hoa@vietvibe.vn");
+
+		content = new byte[CHUNK * 5 + 1234];
+		new Random(42).nextBytes(content);
+	}
+
+	@Test
+	void assemblesChunksSentInParallelAndOutOfOrder() throws Exception {
+		UploadSessionResponse session = init();
+		assertThat(session.getTotalChunks()).isEqualTo(6);
+
+		List<Integer> order = IntStream.range(0, session.getTotalChunks()).boxed().toList().reversed();
+		SecurityContext context = SecurityContextHolder.getContext();
+		order.parallelStream().forEach(index -> {
+			// mỗi chunk là một request riêng của cùng người dùng
+			SecurityContext previous = SecurityContextHolder.getContext();
+			SecurityContextHolder.setContext(context);
+			try {
+				byte[] chunk = chunk(index);
+				chunkedUploadService.writeChunk(session.getUploadId(), index, sha256(chunk),
+						new ByteArrayInputStream(chunk));
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			} finally {
+				SecurityContextHolder.setContext(previous);
+			}
+		});
+
+		assertThat(chunkedUploadService.status(session.getUploadId()).getMissingChunks()).isEmpty();
+		String fileName = chunkedUploadService.complete(session.getUploadId());
+
+		assertThat(Files.readAllBytes(uploadDir.resolve("video").resolve(fileName))).isEqualTo(content);
+		assertThat(uploadDir.resolve("video").resolve(fileName + ".part")).doesNotExist();
+	}
+
+	@Test
+	void rejectsChunkWithWrongChecksumAndKeepsItMissing() throws Exception {
+		UploadSessionResponse session = init();
+		byte[] chunk = chunk(2);
+
+		assertThatThrownBy(() -> chunkedUploadService.writeChunk(session.getUploadId(), 2, sha256(new byte[1]),
+				new ByteArrayInputStream(chunk)))
+				.isInstanceOf(AppException.class)
+				.extracting(e -> ((AppException) e).getErrorCode())
+				.isEqualTo(ErrorCode.CHUNK_CHECKSUM_MISMATCH);
+
+		assertThat(chunkedUploadService.status(session.getUploadId()).getMissingChunks()).contains(2);
+		assertThatThrownBy(() -> chunkedUploadService.complete(session.getUploadId()))
+				.isInstanceOf(AppException.class);
+	}
+
+	@Test
+	void corruptResendOfReceivedChunkMarksItMissingAgain() throws Exception {
+		UploadSessionResponse session = init();
+		for (int i = 0; i < session.getTotalChunks(); i++) {
+			byte[] chunk = chunk(i);
+			chunkedUploadService.writeChunk(session.getUploadId(), i, sha256(chunk), new ByteArrayInputStream(chunk));
+		}
+
+		byte[] corrupt = chunk(1).clone();
+		corrupt[0] ^= 1;
+		assertThatThrownBy(() -> chunkedUploadService.writeChunk(session.getUploadId(), 1, sha256(chunk(1)),
+				new ByteArrayInputStream(corrupt)))
+				.extracting(e -> ((AppException) e).getErrorCode())
+				.isEqualTo(ErrorCode.CHUNK_CHECKSUM_MISMATCH);
+		byte[] tooLong = Arrays.copyOf(chunk(2), CHUNK + 1);
+		assertThatThrownBy(() -> chunkedUploadService.writeChunk(session.getUploadId(), 2, null,
+				new ByteArrayInputStream(tooLong)))
+				.extracting(e -> ((AppException) e).getErrorCode())
+				.isEqualTo(ErrorCode.INVALID_CHUNK);
+
+		assertThat(chunkedUploadService.status(session.getUploadId()).getMissingChunks()).containsExactly(1, 2);
+		assertThatThrownBy(() -> chunkedUploadService.complete(session.getUploadId()))
+				.extracting(e -> ((AppException) e).getErrorCode())
+				.isEqualTo(ErrorCode.UPLOAD_INCOMPLETE);
+
+		for (int i : new int[] { 1, 2 }) {
+			chunkedUploadService.writeChunk(session.getUploadId(), i, sha256(chunk(i)),
+					new ByteArrayInputStream(chunk(i)));
+		}
+		String fileName = chunkedUploadService.complete(session.getUploadId());
+		assertThat(Files.readAllBytes(uploadDir.resolve("video").resolve(fileName))).isEqualTo(content);
+	}
+
+	@Test
+	void limitsSessionsPerUserAndReservedBytes() throws Exception {
+		UploadSessionResponse first = init();
+		init();
+		assertThatThrownBy(this::init)
+				.extracting(e -> ((AppException) e).getErrorCode())
+				.isEqualTo(ErrorCode.TOO_MANY_UPLOADS);
+
+		// phiên bị huỷ trả lại chỗ
+		chunkedUploadService.abort(first.getUploadId());
+		init();
+
+		login("lan@vietvibe.vn");
+		ReflectionTestUtils.setField(chunkedUploadService, "maxReservedBytes", 3L * content.length);
+		init();
+		assertThatThrownBy(this::init)
+				.extracting(e -> ((AppException) e).getErrorCode())
+				.isEqualTo(ErrorCode.TOO_MANY_UPLOADS);
+	}
+
+	@Test
+	void sessionsAreVisibleOnlyToTheirOwner() throws Exception {
+		UploadSessionResponse session = init();
+
+		login("lan@vietvibe.vn");
+		assertThatThrownBy(() -> chunkedUploadService.status(session.getUploadId()))
+				.extracting(e -> ((AppException) e).getErrorCode())
+				.isEqualTo(ErrorCode.UPLOAD_NOT_EXISTED);
+		assertThatThrownBy(() -> chunkedUploadService.abort(session.getUploadId()))
+				.isInstanceOf(AppException.class);
+	}
+
+	@Test
+	void chunkWrittenWhileSessionIsAbortedIsRejected() throws Exception {
+		UploadSessionResponse session = init();
+		byte[] chunk = chunk(0);
+		// client huỷ phiên trong lúc chunk đang được ghi
+		InputStream body = new InputStream() {
+			int read;
+
+			@Override
+			public int read() {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) {
+				if (read == chunk.length) {
+					return -1;
+				}
+				if (read > 0) {
+					chunkedUploadService.abort(session.getUploadId());
+				}
+				int n = Math.min(len, Math.min(1024, chunk.length - read));
+				System.arraycopy(chunk, read, b, off, n);
+				read += n;
+				return n;
+			}
+		};
+
+		assertThatThrownBy(() -> chunkedUploadService.writeChunk(session.getUploadId(), 0, null, body))
+				.extracting(e -> ((AppException) e).getErrorCode())
+				.isEqualTo(ErrorCode.UPLOAD_CLOSED);
+		assertThatThrownBy(() -> chunkedUploadService.writeChunk(session.getUploadId(), 0, null,
+				new ByteArrayInputStream(chunk)))
+				.extracting(e -> ((AppException) e).getErrorCode())
+				.isEqualTo(ErrorCode.UPLOAD_NOT_EXISTED);
+	}
+
+	@AfterEach
+	void logout() {
+		SecurityContextHolder.clearContext();
+	}
+
+	private void login(String username) {
+		SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(username, null));
+	}
+
+	private UploadSessionResponse init() throws Exception {
+		return chunkedUploadService.init(UploadInitRequest.builder()
+				.fileName("lecture.mp4")
+				.folder("video")
+				.size(content.length)
+				.build());
+	}
+
+	private byte[] chunk(int index) {
+		int from = index * CHUNK;
+		return Arrays.copyOfRange(content, from, Math.min(content.length, from + CHUNK));
+	}
+
+	private String sha256(byte[] data) throws Exception {
+		return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+	}
+}
@@ -0,0 +1,123 @@
+package com.example.VietVibe.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.VietVibe.entity.StoredFile;
+import com.example.VietVibe.repository.StoredFileRepository;
+
+class ContentHashServiceTest {
+
+	// SHA-256 của "abc"
+	private static final String ABC = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+	@TempDir
+	Path uploadDir;
+
+	StoredFileRepository storedFileRepository;
+
+	Path file;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		storedFileRepository = mock(StoredFileRepository.class);
+		file = Files.createDirectory(uploadDir.resolve("image")).resolve("a.png");
+		Files.writeString(file, "abc");
+	}
+
+	@Test
+	void hashIsPersistedInSidecarAndReusedAfterRestart() throws Exception {
+		ContentHashService service = newService();
+		assertThat(service.sha256(file)).isEqualTo(ABC);
+		assertThat(service.strongETag(file)).isEqualTo("\"" + ABC + "\"");
+
+		StoredFileRepository afterRestart = mock(StoredFileRepository.class);
+		ContentHashService reloaded = new ContentHashService(afterRestart);
+		ReflectionTestUtils.setField(reloaded, "baseURI", uploadDir.toUri().toString());
+		reloaded.load();
+
+		assertThat(reloaded.sha256(file)).isEqualTo(ABC);
+		verify(afterRestart, never()).findByFolderAndFileName("image", "a.png");
+	}
+
+	@Test
+	void usesStoredHashWithoutReadingFile() throws Exception {
+		when(storedFileRepository.findByFolderAndFileName("image", "a.png"))
+				.thenReturn(Optional.of(StoredFile.builder().sha256("stored").size(3).build()));
+
+		assertThat(newService().sha256(file)).isEqualTo("stored");
+	}
+
+	@Test
+	void strongETagDoesNotHashOnCallerThread() throws Exception {
+		ContentHashService service = newService();
+
+		assertThat(service.strongETag(file)).isNull();
+
+		String etag = null;
+		for (int i = 0; i < 200 && etag == null; i++) {
+			Thread.sleep(10);
+			etag = service.strongETag(file);
+		}
+		assertThat(etag).isEqualTo("\"" + ABC + "\"");
+		service.compact();
+	}
+
+	@Test
+	void concurrentCallersShareOneHash() throws Exception {
+		Path video = uploadDir.resolve("image").resolve("big.bin");
+		Files.write(video, new byte[8 * 1024 * 1024]);
+		ContentHashService service = newService();
+
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(pool.submit(() -> service.sha256(video)));
+			}
+			for (Future<String> result : results) {
+				assertThat(result.get()).isEqualTo(results.get(0).get());
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		assertThat(Files.readAllLines(uploadDir.resolve(".cas").resolve("etag-index"))).hasSize(1);
+	}
+
+	@Test
+	void changedFileIsHashedAgain() throws Exception {
+		ContentHashService service = newService();
+		service.sha256(file);
+
+		Files.writeString(file, "abcd");
+		Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+
+		assertThat(service.sha256(file)).isNotEqualTo(ABC);
+		assertThat(service.sha256(uploadDir.resolve("..").resolve("outside"))).isNull();
+	}
+
+	private ContentHashService newService() {
+		ContentHashService service = new ContentHashService(storedFileRepository);
+		ReflectionTestUtils.setField(service, "baseURI", uploadDir.toUri().toString());
+		service.load();
+		return service;
+	}
+}
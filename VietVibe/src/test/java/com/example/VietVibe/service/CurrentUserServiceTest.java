@@ -0,0 +1,112 @@
+package com.example.VietVibe.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.VietVibe.dto.response.UserInToken;
+import com.example.VietVibe.entity.User;
+import com.example.VietVibe.repository.UserRepository;
+import com.nimbusds.jwt.JWTClaimsSet;
+
+class CurrentUserServiceTest {
+
+	UserRepository userRepository;
+
+	CurrentUserService currentUserService;
+
+	@BeforeEach
+	void setUp() {
+		userRepository = mock(UserRepository.class);
+		currentUserService = new CurrentUserService(userRepository);
+		ReflectionTestUtils.setField(currentUserService, "ttlSeconds", 60L);
+		ReflectionTestUtils.setField(currentUserService, "maxEntries", 100);
+		ReflectionTestUtils.setField(currentUserService, "accessTokenValiditySeconds", 3600L);
+		ReflectionTestUtils.setField(currentUserService, "startedAt", Instant.now().minus(1, ChronoUnit.HOURS));
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void usesUserClaimFromAccessToken() throws Exception {
+		authenticate(Instant.now().minusSeconds(5));
+
+		assertThat(currentUserService.current())
+				.contains(new CurrentUserService.UserSnapshot("u-1", "hoa@vietvibe.vn", "USER"));
+		verify(userRepository, never()).findByUsername(anyString());
+	}
+
+	@Test
+	void tokensIssuedBeforeAnUpdateFallBackToCachedLookup() throws Exception {
+		authenticate(Instant.now().minus(1, ChronoUnit.MINUTES));
+		User user = new User();
+		user.setId("u-1");
+		user.setUsername("hoa@vietvibe.vn");
+		user.setRole("ADMIN");
+		when(userRepository.findByUsername("hoa@vietvibe.vn")).thenReturn(Optional.of(user));
+
+		currentUserService.evict("hoa@vietvibe.vn");
+		Thread.sleep(2);
+
+		assertThat(currentUserService.current().map(CurrentUserService.UserSnapshot::role)).contains("ADMIN");
+		assertThat(currentUserService.current().map(CurrentUserService.UserSnapshot::role)).contains("ADMIN");
+		verify(userRepository, times(1)).findByUsername("hoa@vietvibe.vn");
+	}
+
+	@Test
+	void deletedUserIsNotResolved() throws Exception {
+		authenticate(Instant.now().minus(1, ChronoUnit.MINUTES));
+		when(userRepository.findByUsername("hoa@vietvibe.vn")).thenReturn(Optional.empty());
+
+		currentUserService.evict("hoa@vietvibe.vn");
+
+		assertThat(currentUserService.current()).isEmpty();
+	}
+
+	@Test
+	void tokensIssuedBeforeStartupAreCheckedAgainstTheDatabase() throws Exception {
+		ReflectionTestUtils.setField(currentUserService, "startedAt", Instant.now());
+		authenticate(Instant.now().minus(1, ChronoUnit.MINUTES));
+		when(userRepository.findByUsername("hoa@vietvibe.vn")).thenReturn(Optional.empty());
+
+		assertThat(currentUserService.current()).isEmpty();
+		verify(userRepository).findByUsername("hoa@vietvibe.vn");
+	}
+
+	// claim user đi qua cùng đường serialize của Nimbus như SecurityUtil.createAccessToken
+	private void authenticate(Instant issuedAt) throws Exception {
+		UserInToken user = UserInToken.builder().id("u-1").username("hoa@vietvibe.vn").role("USER").build();
+		JWTClaimsSet claims = JWTClaimsSet.parse(new JWTClaimsSet.Builder()
+				.subject("hoa@vietvibe.vn")
+				.claim("user", user)
+				.build()
+				.toString());
+		Jwt jwt = Jwt.withTokenValue("token")
+				.header("alg", "HS512")
+				.subject("hoa@vietvibe.vn")
+				.claim("user", claims.getClaim("user"))
+				.issuedAt(issuedAt)
+				.expiresAt(issuedAt.plus(1, ChronoUnit.HOURS))
+				.build();
+		SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+	}
+}
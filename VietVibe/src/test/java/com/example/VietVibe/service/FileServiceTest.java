@@ -0,0 +1,105 @@
+package com.example.VietVibe.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.VietVibe.repository.StoredFileRepository;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"upload.orphan-grace-ms=0"
+})
+@Import({ FileService.class, LocalStorageBackend.class })
+// store/adopt phải commit thật để blob được bỏ giữ sau transaction
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FileServiceTest {
+
+	@TempDir
+	static Path uploadDir;
+
+	@DynamicPropertySource
+	static void uploadProperties(DynamicPropertyRegistry registry) {
+		registry.add("upload.file.uri", () -> uploadDir.toUri().toString());
+	}
+
+	@Autowired
+	FileService fileService;
+
+	@Autowired
+	StoredFileRepository storedFileRepository;
+
+	@Test
+	void uploadsStartUnreferencedAndLessonsHoldTheCount() throws Exception {
+		String name = fileService.store(video("a.mp4", "bai hoc a"), "video");
+		assertThat(refCount(name)).isZero();
+
+		// upload lại cùng nội dung không tăng tham chiếu
+		assertThat(fileService.store(video("b.mp4", "bai hoc a"), "video")).isEqualTo(name);
+		assertThat(refCount(name)).isZero();
+
+		fileService.retain("video", name);
+		fileService.retain("video", name);
+		fileService.release("video", name);
+		assertThat(refCount(name)).isEqualTo(1);
+
+		fileService.release("video", name);
+		fileService.release("video", name);
+		assertThat(refCount(name)).isZero();
+	}
+
+	@Test
+	void sweepRemovesOnlyUnreferencedNamesAndTheirBlobs() throws Exception {
+		String kept = fileService.store(video("kept.mp4", "giu lai"), "video");
+		String orphan = fileService.store(video("orphan.mp4", "bo di"), "video");
+		String orphanSha = fileService.contentHash("video", orphan).orElseThrow();
+		String keptSha = fileService.contentHash("video", kept).orElseThrow();
+		fileService.retain("video", kept);
+		Thread.sleep(5);
+
+		fileService.sweepUnreferenced();
+
+		assertThat(storedFileRepository.findByFolderAndFileName("video", orphan)).isEmpty();
+		assertThat(uploadDir.resolve("video").resolve(orphan)).doesNotExist();
+		assertThat(blob(orphanSha)).doesNotExist();
+		assertThat(storedFileRepository.findByFolderAndFileName("video", kept)).isPresent();
+		assertThat(Files.readString(uploadDir.resolve("video").resolve(kept))).isEqualTo("giu lai");
+		assertThat(blob(keptSha)).exists();
+	}
+
+	@Test
+	void sweepLeavesFoldersThatAreNotRefCounted() throws Exception {
+		String image = fileService.store(video("anh.png", "hinh anh"), "images");
+		Thread.sleep(5);
+
+		fileService.sweepUnreferenced();
+
+		assertThat(storedFileRepository.findByFolderAndFileName("images", image)).isPresent();
+		assertThat(uploadDir.resolve("images").resolve(image)).exists();
+	}
+
+	private int refCount(String name) {
+		return storedFileRepository.findByFolderAndFileName("video", name).orElseThrow().getRefCount();
+	}
+
+	private static Path blob(String sha256) {
+		return uploadDir.resolve(".cas").resolve(sha256.substring(0, 2)).resolve(sha256);
+	}
+
+	private static MockMultipartFile video(String name, String content) {
+		return new MockMultipartFile("file", name, "video/mp4", content.getBytes(StandardCharsets.UTF_8));
+	}
+}
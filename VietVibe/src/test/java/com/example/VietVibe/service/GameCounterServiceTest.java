@@ -0,0 +1,63 @@
+package com.example.VietVibe.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class GameCounterServiceTest {
+
+	JdbcTemplate jdbcTemplate;
+
+	PlatformTransactionManager transactionManager;
+
+	GameCounterService gameCounterService;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = mock(JdbcTemplate.class);
+		transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+		gameCounterService = new GameCounterService(jdbcTemplate, new TransactionTemplate(transactionManager));
+	}
+
+	@Test
+	void failedFlushRollsBackAndKeepsDeltaPending() {
+		gameCounterService.recordPlay(1);
+		gameCounterService.recordPlay(1);
+		gameCounterService.recordScore(1, 90);
+		when(jdbcTemplate.batchUpdate(startsWith("UPDATE games SET best_score"), anyList()))
+				.thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+		gameCounterService.flush();
+
+		verify(transactionManager).rollback(any(TransactionStatus.class));
+		verify(transactionManager, never()).commit(any(TransactionStatus.class));
+		// lượt chơi chưa được coi là đã ghi: lần flush sau ghi lại đúng phần chênh lệch này
+		assertThat(gameCounterService.pendingPlays(1)).isEqualTo(2);
+	}
+
+	@Test
+	void committedFlushAdvancesFlushedCounters() {
+		gameCounterService.recordPlay(1);
+		gameCounterService.recordScore(1, 90);
+
+		gameCounterService.flush();
+
+		verify(transactionManager).commit(any(TransactionStatus.class));
+		assertThat(gameCounterService.pendingPlays(1)).isZero();
+	}
+}
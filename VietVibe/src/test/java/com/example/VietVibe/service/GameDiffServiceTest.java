@@ -0,0 +1,158 @@
+package com.example.VietVibe.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.example.VietVibe.dto.request.GameUpdateRequest;
+import com.example.VietVibe.dto.response.GameChangeSetResponse;
+import com.example.VietVibe.entity.Answer;
+import com.example.VietVibe.entity.Game;
+import com.example.VietVibe.entity.Question;
+import com.example.VietVibe.enums.GameType;
+import com.example.VietVibe.repository.GameRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ GameDiffService.class, GameFetchService.class })
+class GameDiffServiceTest {
+
+	private static final int QUESTIONS = 100;
+	private static final int ANSWERS_PER_QUESTION = 4;
+
+	@Autowired
+	GameDiffService gameDiffService;
+
+	@Autowired
+	GameFetchService gameFetchService;
+
+	@Autowired
+	GameRepository gameRepository;
+
+	@Autowired
+	EntityManager entityManager;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void fixingOneTypoUpdatesOneRow() {
+		Game game = loadTree(saveGame());
+		GameUpdateRequest request = copyOf(game);
+		request.getQuestions().get(42).getAnswers().get(1).setContent("Fixed answer");
+
+		Statistics statistics = statistics();
+		GameChangeSetResponse changes = gameDiffService.apply(game, request);
+		entityManager.flush();
+
+		assertThat(changes.isGameUpdated()).isFalse();
+		assertThat(changes.getAnswersUpdated()).isEqualTo(1);
+		assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+		assertThat(statistics.getEntityInsertCount()).isZero();
+		assertThat(statistics.getEntityDeleteCount()).isZero();
+	}
+
+	@Test
+	void addsAndRemovesOnlyWhatChanged() {
+		Game game = loadTree(saveGame());
+		GameUpdateRequest request = copyOf(game);
+		request.getQuestions().remove(0);
+		request.getQuestions().add(question("New question"));
+
+		Statistics statistics = statistics();
+		GameChangeSetResponse changes = gameDiffService.apply(game, request);
+		entityManager.flush();
+
+		assertThat(changes.getQuestionsAdded()).isEqualTo(1);
+		assertThat(changes.getQuestionsRemoved()).isEqualTo(1);
+		assertThat(changes.getAnswersAdded()).isEqualTo(ANSWERS_PER_QUESTION);
+		assertThat(changes.getAnswersRemoved()).isEqualTo(ANSWERS_PER_QUESTION);
+		assertThat(statistics.getEntityInsertCount()).isEqualTo(1 + ANSWERS_PER_QUESTION);
+		assertThat(statistics.getEntityDeleteCount()).isEqualTo(1 + ANSWERS_PER_QUESTION);
+		assertThat(statistics.getEntityUpdateCount()).isZero();
+	}
+
+	private Statistics statistics() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		return statistics;
+	}
+
+	private long saveGame() {
+		Game game = Game.builder()
+				.name("Diff game")
+				.type(GameType.MULTIPLE_CHOICE)
+				.totalQuestion(QUESTIONS)
+				.questions(new ArrayList<>())
+				.points(new ArrayList<>())
+				.build();
+		for (int i = 0; i < QUESTIONS; i++) {
+			Question question = question("Question " + i);
+			question.setGame(game);
+			question.getAnswers().forEach(a -> a.setQuestion(question));
+			game.getQuestions().add(question);
+		}
+		long id = gameRepository.saveAndFlush(game).getId();
+		entityManager.clear();
+		return id;
+	}
+
+	private Game loadTree(long id) {
+		return gameFetchService.findTreeById(id).orElseThrow();
+	}
+
+	private Question question(String content) {
+		Question question = Question.builder()
+				.content(content)
+				.answers(new ArrayList<>())
+				.build();
+		for (int j = 0; j < ANSWERS_PER_QUESTION; j++) {
+			question.getAnswers().add(Answer.builder()
+					.content("Answer " + j)
+					.isCorrect(j == 0)
+					.orderIndex(j)
+					.build());
+		}
+		return question;
+	}
+
+	// Giống payload admin gửi lên: cùng id, nội dung y nguyên
+	private GameUpdateRequest copyOf(Game game) {
+		ArrayList<Question> questions = new ArrayList<>();
+		for (Question q : game.getQuestions()) {
+			ArrayList<Answer> answers = new ArrayList<>();
+			q.getAnswers().forEach(a -> answers.add(Answer.builder()
+					.id(a.getId())
+					.content(a.getContent())
+					.isCorrect(a.isCorrect())
+					.orderIndex(a.getOrderIndex())
+					.build()));
+			questions.add(Question.builder()
+					.id(q.getId())
+					.content(q.getContent())
+					.imageUrl(q.getImageUrl())
+					.audioUrl(q.getAudioUrl())
+					.answers(answers)
+					.build());
+		}
+		return GameUpdateRequest.builder()
+				.name(game.getName())
+				.description(game.getDescription())
+				.type(game.getType())
+				.version(game.getVersion())
+				.questions(questions)
+				.build();
+	}
+}
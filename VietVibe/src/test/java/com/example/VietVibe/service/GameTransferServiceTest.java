@@ -0,0 +1,148 @@
+package com.example.VietVibe.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.example.VietVibe.dto.response.GameImportResponse;
+import com.example.VietVibe.entity.Answer;
+import com.example.VietVibe.entity.Game;
+import com.example.VietVibe.entity.Question;
+import com.example.VietVibe.enums.GameType;
+import com.example.VietVibe.mapper.GameMapperImpl;
+import com.example.VietVibe.repository.GameRepository;
+
+import jakarta.persistence.EntityManager;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"game-transfer.batch-size=2"
+})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({ GameTransferService.class, GameService.class, GameFetchService.class, GameDiffService.class,
+		GameMapperImpl.class })
+class GameTransferServiceTest {
+
+	@Autowired
+	GameTransferService gameTransferService;
+
+	@Autowired
+	GameRepository gameRepository;
+
+	@Autowired
+	EntityManager entityManager;
+
+	@MockitoBean
+	LeaderboardService leaderboardService;
+
+	@MockitoBean
+	UserGameStatsService userGameStatsService;
+
+	@MockitoBean
+	GameCounterService gameCounterService;
+
+	@MockitoBean
+	AnswerKeyService answerKeyService;
+
+	@Test
+	void exportedJsonArrayImportsBack() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			gameRepository.save(buildGame("Game " + i));
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		ByteArrayOutputStream exported = new ByteArrayOutputStream();
+		gameTransferService.exportGames(exported, false);
+		assertThat(exported.toString(StandardCharsets.UTF_8)).startsWith("[");
+
+		GameImportResponse report = gameTransferService
+				.importGames(new ByteArrayInputStream(exported.toByteArray()));
+
+		assertThat(report.getImported()).isEqualTo(3);
+		assertThat(report.getFailed()).isZero();
+		assertThat(report.isCompleted()).isTrue();
+		assertThat(gameRepository.count()).isEqualTo(6);
+	}
+
+	@Test
+	void exportedNdjsonImportsBack() throws Exception {
+		gameRepository.save(buildGame("Game"));
+		entityManager.flush();
+		entityManager.clear();
+
+		ByteArrayOutputStream exported = new ByteArrayOutputStream();
+		gameTransferService.exportGames(exported, true);
+
+		GameImportResponse report = gameTransferService
+				.importGames(new ByteArrayInputStream(exported.toByteArray()));
+
+		assertThat(report.getImported()).isEqualTo(1);
+		assertThat(gameRepository.count()).isEqualTo(2);
+	}
+
+	@Test
+	void malformedJsonReportsWhatWasCommittedAndWhereItStopped() throws Exception {
+		String body = "[{\"name\":\"A\",\"type\":\"MULTIPLE_CHOICE\"},"
+				+ "{\"name\":\"B\",\"type\":\"MULTIPLE_CHOICE\"},"
+				+ "{\"name\":\"C\",\"type\":\"MULTIPLE_CHOICE\"},"
+				+ "{\"name\":\"D\",\"type\":";
+
+		GameImportResponse report = gameTransferService
+				.importGames(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+		assertThat(report.isCompleted()).isFalse();
+		assertThat(report.getImported()).isEqualTo(3);
+		assertThat(report.getErrors()).singleElement().asString().contains("Game #3").contains("line 1");
+		assertThat(gameRepository.count()).isEqualTo(3);
+	}
+
+	@Test
+	void failedBatchReportsTheFilePositionsOfItsGames() throws Exception {
+		// lô 2 (batch-size=2) gồm game #2 và #4, #3 không hợp lệ nằm giữa; name của #4 quá dài nên cả lô lỗi
+		String tooLong = "x".repeat(1_000);
+		String body = "[{\"name\":\"A\",\"type\":\"MULTIPLE_CHOICE\"},"
+				+ "{\"name\":\"B\",\"type\":\"MULTIPLE_CHOICE\"},"
+				+ "{\"name\":\"C\",\"type\":\"MULTIPLE_CHOICE\"},"
+				+ "{\"type\":\"MULTIPLE_CHOICE\"},"
+				+ "{\"name\":\"" + tooLong + "\",\"type\":\"MULTIPLE_CHOICE\"}]";
+
+		GameImportResponse report = gameTransferService
+				.importGames(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+		assertThat(report.getImported()).isEqualTo(2);
+		assertThat(report.getFailed()).isEqualTo(3);
+		assertThat(report.getErrors()).hasSize(2);
+		assertThat(report.getErrors().get(0)).startsWith("Game #3:");
+		assertThat(report.getErrors().get(1)).startsWith("Games #2, #4:");
+	}
+
+	private Game buildGame(String name) {
+		Game game = Game.builder()
+				.name(name)
+				.type(GameType.MULTIPLE_CHOICE)
+				.totalQuestion(1)
+				.questions(new ArrayList<>())
+				.points(new ArrayList<>())
+				.build();
+		Question question = Question.builder()
+				.content("Question of " + name)
+				.game(game)
+				.answers(new ArrayList<>())
+				.build();
+		question.getAnswers().add(Answer.builder().content("Answer").isCorrect(true).orderIndex(0).question(question).build());
+		game.getQuestions().add(question);
+		return game;
+	}
+}
@@ -0,0 +1,22 @@
+package com.example.VietVibe.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class HlsPackagingServiceTest {
+
+	@Test
+	void gopFollowsSourceFrameRate() {
+		assertThat(HlsPackagingService.gopSize(25f, 6)).isEqualTo(150);
+		assertThat(HlsPackagingService.gopSize(30f, 6)).isEqualTo(180);
+		assertThat(HlsPackagingService.gopSize(60f, 6)).isEqualTo(360);
+		assertThat(HlsPackagingService.gopSize(29.97f, 6)).isEqualTo(180);
+	}
+
+	@Test
+	void unknownFrameRateFallsBackTo25() {
+		assertThat(HlsPackagingService.gopSize(0f, 6)).isEqualTo(150);
+		assertThat(HlsPackagingService.gopSize(Float.NaN, 4)).isEqualTo(100);
+	}
+}
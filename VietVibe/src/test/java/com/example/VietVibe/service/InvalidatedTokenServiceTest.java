@@ -0,0 +1,101 @@
+package com.example.VietVibe.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.example.VietVibe.entity.InvalidatedToken;
+import com.example.VietVibe.repository.InvalidatedTokenRepository;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+class InvalidatedTokenServiceTest {
+
+	private static final byte[] KEY = new byte[64];
+
+	InvalidatedTokenRepository invalidatedTokenRepository;
+
+	InvalidatedTokenService invalidatedTokenService;
+
+	@BeforeEach
+	void setUp() {
+		invalidatedTokenRepository = mock(InvalidatedTokenRepository.class);
+		invalidatedTokenService = new InvalidatedTokenService(invalidatedTokenRepository);
+		invalidatedTokenService.load();
+	}
+
+	@Test
+	void revokedTokenIsRejectedByJti() throws Exception {
+		String jti = UUID.randomUUID().toString();
+		invalidatedTokenService.revoke(token(jti, Instant.now().plus(1, ChronoUnit.HOURS)));
+
+		assertThat(invalidatedTokenService.isRevoked(jti)).isTrue();
+		assertThat(invalidatedTokenService.isRevoked(UUID.randomUUID().toString())).isFalse();
+
+		ArgumentCaptor<InvalidatedToken> saved = ArgumentCaptor.forClass(InvalidatedToken.class);
+		verify(invalidatedTokenRepository).save(saved.capture());
+		assertThat(saved.getValue().getId()).isEqualTo(jti);
+	}
+
+	@Test
+	void legacyTokenWithoutJtiIsKeyedByHash() throws Exception {
+		String token = token(null, Instant.now().plus(1, ChronoUnit.HOURS));
+		invalidatedTokenService.revoke(token);
+
+		String key = InvalidatedTokenService.keyOf(null, token);
+		assertThat(key).hasSize(64);
+		assertThat(invalidatedTokenService.isRevoked(key)).isTrue();
+	}
+
+	@Test
+	void denylistIsRestoredFromDatabaseAndPrunedOnExpiry() {
+		when(invalidatedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of(
+				InvalidatedToken.builder().id("live").expiresAt(Instant.now().plus(1, ChronoUnit.HOURS)).build(),
+				InvalidatedToken.builder().id("ending").expiresAt(Instant.now().plusMillis(50)).build()));
+		InvalidatedTokenService restarted = new InvalidatedTokenService(invalidatedTokenRepository);
+		restarted.load();
+
+		assertThat(restarted.isRevoked("live")).isTrue();
+		assertThat(restarted.isRevoked("ending")).isTrue();
+
+		await(100);
+		restarted.prune();
+
+		assertThat(restarted.isRevoked("live")).isTrue();
+		assertThat(restarted.isRevoked("ending")).isFalse();
+	}
+
+	private String token(String jti, Instant exp) throws Exception {
+		JWTClaimsSet claims = new JWTClaimsSet.Builder()
+				.jwtID(jti)
+				.subject("user@vietvibe.vn")
+				.expirationTime(Date.from(exp))
+				.build();
+		SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.HS512), claims);
+		jwt.sign(new MACSigner(KEY));
+		return jwt.serialize();
+	}
+
+	private void await(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package com.example.VietVibe.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.VietVibe.service.StorageBackend.StoredBlob;
+
+class LocalStorageBackendTest {
+
+	@TempDir
+	Path uploadDir;
+
+	LocalStorageBackend backend;
+
+	@BeforeEach
+	void setUp() {
+		backend = new LocalStorageBackend();
+		ReflectionTestUtils.setField(backend, "baseURI", uploadDir.toUri().toString());
+	}
+
+	@Test
+	void identicalContentIsStoredOnce() throws Exception {
+		byte[] content = "xin chao".getBytes(StandardCharsets.UTF_8);
+
+		StoredBlob first = backend.write(new ByteArrayInputStream(content));
+		StoredBlob second = backend.write(new ByteArrayInputStream(content));
+
+		assertThat(second).isEqualTo(first);
+		assertThat(first.size()).isEqualTo(content.length);
+		assertThat(blobCount()).isEqualTo(1);
+		assertThat(Files.list(uploadDir.resolve(".cas").resolve("tmp"))).isEmpty();
+	}
+
+	@Test
+	void linkedNamesReadBlobContentAndSurviveUnlinkOfOthers() throws Exception {
+		byte[] content = "bai hoc 1".getBytes(StandardCharsets.UTF_8);
+		StoredBlob blob = backend.write(new ByteArrayInputStream(content));
+
+		backend.link(blob.sha256(), "video", "a.mp4");
+		backend.link(blob.sha256(), "video", "b.mp4");
+		backend.unlink("video", "a.mp4");
+
+		assertThat(uploadDir.resolve("video/a.mp4")).doesNotExist();
+		assertThat(Files.readAllBytes(uploadDir.resolve("video/b.mp4"))).isEqualTo(content);
+
+		backend.unpin(blob.sha256());
+		assertThat(backend.deleteBlob(blob.sha256())).isTrue();
+		assertThat(blobCount()).isZero();
+		assertThat(Files.readAllBytes(uploadDir.resolve("video/b.mp4"))).isEqualTo(content);
+	}
+
+	@Test
+	void pinnedBlobSurvivesDeleteUntilUnpinned() throws Exception {
+		byte[] content = "dang tai len".getBytes(StandardCharsets.UTF_8);
+		StoredBlob blob = backend.write(new ByteArrayInputStream(content));
+
+		assertThat(backend.deleteBlob(blob.sha256())).isFalse();
+		backend.link(blob.sha256(), "video", "d.mp4");
+		assertThat(blobCount()).isEqualTo(1);
+
+		backend.unpin(blob.sha256());
+		assertThat(backend.deleteBlob(blob.sha256())).isTrue();
+		assertThat(blobCount()).isZero();
+	}
+
+	@Test
+	void ingestMovesExistingFileIntoStore() throws Exception {
+		Path file = Files.createDirectories(uploadDir.resolve("video")).resolve("c.mp4");
+		Files.writeString(file, "chunked");
+
+		StoredBlob blob = backend.ingest(file);
+		backend.link(blob.sha256(), "video", "c.mp4");
+
+		assertThat(blobCount()).isEqualTo(1);
+		assertThat(Files.readString(file)).isEqualTo("chunked");
+	}
+
+	private long blobCount() throws Exception {
+		try (Stream<Path> files = Files.walk(uploadDir.resolve(".cas"))) {
+			return files.filter(Files::isRegularFile)
+					.filter(p -> !p.getParent().getFileName().toString().equals("tmp"))
+					.count();
+		}
+	}
+}
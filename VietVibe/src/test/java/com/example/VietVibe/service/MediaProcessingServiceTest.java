@@ -0,0 +1,85 @@
+package com.example.VietVibe.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.VietVibe.entity.MediaJob;
+import com.example.VietVibe.repository.LessonRepository;
+import com.example.VietVibe.repository.MediaJobRepository;
+
+import ws.schild.jave.info.MultimediaInfo;
+
+class MediaProcessingServiceTest {
+
+	HlsPackagingService hlsPackagingService;
+
+	ThumbnailService thumbnailService;
+
+	MediaProcessingService mediaProcessingService;
+
+	@BeforeEach
+	void setUp() {
+		thumbnailService = mock(ThumbnailService.class);
+		when(thumbnailService.isEnabled()).thenReturn(true);
+		hlsPackagingService = mock(HlsPackagingService.class);
+		when(hlsPackagingService.isEnabled()).thenReturn(true);
+		mediaProcessingService = new MediaProcessingService(mock(MediaJobRepository.class),
+				mock(LessonRepository.class), mock(FileService.class), hlsPackagingService,
+				thumbnailService, mock(ContentHashService.class));
+	}
+
+	@Test
+	void failedThumbnailsKeepDurationAndHls() throws Exception {
+		when(thumbnailService.generate(any(), any())).thenThrow(new IOException("ffmpeg exited with 1"));
+		MediaJob job = job();
+
+		mediaProcessingService.applyThumbnails(job, Path.of("lesson.mp4"), new MultimediaInfo());
+
+		assertThat(job.getDurationSeconds()).isEqualTo(125);
+		assertThat(job.getHlsPath()).isEqualTo("hls/lesson/master.m3u8");
+		assertThat(job.getPosterPath()).isNull();
+		assertThat(job.getThumbnailsPath()).isNull();
+	}
+
+	@Test
+	void failedHlsLeavesPathEmptyAndKeepsDuration() throws Exception {
+		when(hlsPackagingService.packageVideo(any(), any())).thenThrow(new IOException("ffmpeg exited with 1"));
+		MediaJob job = job();
+		job.setHlsPath(null);
+
+		mediaProcessingService.applyHls(job, Path.of("lesson.mp4"), new MultimediaInfo());
+
+		assertThat(job.getHlsPath()).isNull();
+		assertThat(job.getDurationSeconds()).isEqualTo(125);
+	}
+
+	@Test
+	void partialThumbnailsAreApplied() throws Exception {
+		when(thumbnailService.generate(any(), any()))
+				.thenReturn(new ThumbnailService.Thumbnails("thumbs/lesson/poster.jpg", null));
+		MediaJob job = job();
+
+		mediaProcessingService.applyThumbnails(job, Path.of("lesson.mp4"), new MultimediaInfo());
+
+		assertThat(job.getPosterPath()).isEqualTo("thumbs/lesson/poster.jpg");
+		assertThat(job.getThumbnailsPath()).isNull();
+	}
+
+	private static MediaJob job() {
+		return MediaJob.builder()
+				.id("job-1")
+				.folder("video")
+				.fileName("lesson.mp4")
+				.durationSeconds(125)
+				.hlsPath("hls/lesson/master.m3u8")
+				.build();
+	}
+}
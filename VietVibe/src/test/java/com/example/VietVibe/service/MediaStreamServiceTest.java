@@ -0,0 +1,142 @@
+package com.example.VietVibe.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.VietVibe.repository.StoredFileRepository;
+
+class MediaStreamServiceTest {
+
+	@TempDir
+	Path uploadDir;
+
+	MediaStreamService mediaStreamService;
+
+	ContentHashService contentHashService;
+
+	byte[] content;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		content = new byte[1000];
+		for (int i = 0; i < content.length; i++) {
+			content[i] = (byte) i;
+		}
+		Files.createDirectory(uploadDir.resolve("video"));
+		Files.write(uploadDir.resolve("video").resolve("lesson.mp4"), content);
+
+		FileService fileService = new FileService(null, null);
+		ReflectionTestUtils.setField(fileService, "baseURI", uploadDir.toUri().toString());
+		contentHashService = new ContentHashService(mock(StoredFileRepository.class));
+		ReflectionTestUtils.setField(contentHashService, "baseURI", uploadDir.toUri().toString());
+		CachePolicyService cachePolicyService = new CachePolicyService();
+		ReflectionTestUtils.setField(cachePolicyService, "folders", "video:86400");
+		cachePolicyService.init();
+		mediaStreamService = new MediaStreamService(fileService, contentHashService, cachePolicyService);
+	}
+
+	@AfterEach
+	void tearDown() {
+		contentHashService.compact();
+	}
+
+	@Test
+	void servesWholeFileWithoutRange() throws Exception {
+		MockHttpServletResponse response = stream(new MockHttpServletRequest("GET", "/"));
+
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+		assertThat(response.getContentAsByteArray()).isEqualTo(content);
+	}
+
+	@Test
+	void usesContentHashAsStrongETag() throws Exception {
+		contentHashService.sha256(uploadDir.resolve("video").resolve("lesson.mp4"));
+		MockHttpServletResponse first = stream(new MockHttpServletRequest("GET", "/"));
+		String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+
+		assertThat(first.getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + sha256 + "\"");
+		assertThat(first.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("max-age=86400, public");
+
+		MockHttpServletRequest revalidate = new MockHttpServletRequest("GET", "/");
+		revalidate.addHeader(HttpHeaders.IF_NONE_MATCH, first.getHeader(HttpHeaders.ETAG));
+		MockHttpServletResponse second = stream(revalidate);
+
+		assertThat(second.getStatus()).isEqualTo(304);
+		assertThat(second.getContentAsByteArray()).isEmpty();
+	}
+
+	@Test
+	void servesFileWithoutETagUntilHashIsKnown() throws Exception {
+		MockHttpServletResponse response = stream(new MockHttpServletRequest("GET", "/"));
+
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(response.getHeader(HttpHeaders.ETAG)).isNull();
+		assertThat(response.getHeader(HttpHeaders.LAST_MODIFIED)).isNotNull();
+		assertThat(response.getContentAsByteArray()).isEqualTo(content);
+	}
+
+	@Test
+	void servesSingleRange() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+		request.addHeader(HttpHeaders.RANGE, "bytes=100-199");
+		MockHttpServletResponse response = stream(request);
+
+		assertThat(response.getStatus()).isEqualTo(206);
+		assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 100-199/1000");
+		assertThat(response.getContentAsByteArray()).hasSize(100).startsWith(content[100]);
+	}
+
+	@Test
+	void servesMultipleRangesAsMultipart() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+		request.addHeader(HttpHeaders.RANGE, "bytes=0-9,500-509");
+		MockHttpServletResponse response = stream(request);
+
+		assertThat(response.getStatus()).isEqualTo(206);
+		assertThat(response.getContentType()).startsWith("multipart/byteranges");
+		assertThat(response.getContentAsString()).contains("Content-Range: bytes 0-9/1000")
+				.contains("Content-Range: bytes 500-509/1000");
+	}
+
+	@Test
+	void ignoresRangeWhenIfRangeIsStale() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+		request.addHeader(HttpHeaders.RANGE, "bytes=100-199");
+		request.addHeader(HttpHeaders.IF_RANGE, "\"stale\"");
+		MockHttpServletResponse response = stream(request);
+
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(response.getContentAsByteArray()).hasSize(content.length);
+	}
+
+	@Test
+	void rejectsUnsatisfiableRange() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+		request.addHeader(HttpHeaders.RANGE, "bytes=5000-");
+		MockHttpServletResponse response = stream(request);
+
+		assertThat(response.getStatus()).isEqualTo(416);
+		assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */1000");
+	}
+
+	private MockHttpServletResponse stream(MockHttpServletRequest request) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		mediaStreamService.stream("video", "lesson.mp4", request, response);
+		return response;
+	}
+}
@@ -0,0 +1,94 @@
+package com.example.VietVibe.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import ws.schild.jave.info.MultimediaInfo;
+import ws.schild.jave.info.VideoInfo;
+import ws.schild.jave.info.VideoSize;
+
+class ThumbnailServiceTest {
+
+	@TempDir
+	Path uploadDir;
+
+	@Test
+	void spriteVttMapsEachIntervalToItsTile() {
+		String vtt = ThumbnailService.spriteVtt("sprite.jpg", 25_500, 10, 3, 2, 160, 90);
+
+		assertThat(vtt).isEqualTo("""
+				WEBVTT
+
+				00:00:00.000 --> 00:00:10.000
+				sprite.jpg#xywh=0,0,160,90
+
+				00:00:10.000 --> 00:00:20.000
+				sprite.jpg#xywh=160,0,160,90
+
+				00:00:20.000 --> 00:00:25.500
+				sprite.jpg#xywh=0,90,160,90
+				""");
+	}
+
+	@Test
+	void stretchedIntervalKeepsTimestampsInMilliseconds() {
+		String vtt = ThumbnailService.spriteVtt("sprite.jpg", 3_725_000, 37.25, 100, 10, 160, 90);
+
+		assertThat(vtt).contains("01:01:27.750 --> 01:02:05.000\nsprite.jpg#xywh=1440,810,160,90");
+	}
+
+	@Test
+	void unreadableSourceProducesNoThumbnailsAndNoLeftovers() throws Exception {
+		Path source = brokenSource();
+
+		assertThat(thumbnailService().generate(source, info())).isNull();
+		try (Stream<Path> left = Files.list(uploadDir.resolve(ThumbnailService.THUMBS_FOLDER))) {
+			assertThat(left).isEmpty();
+		}
+	}
+
+	@Test
+	void existingPosterIsKeptWhenOnlyTheSpriteIsMissing() throws Exception {
+		Path source = brokenSource();
+		Path thumbs = Files.createDirectories(uploadDir.resolve(ThumbnailService.THUMBS_FOLDER).resolve("broken"));
+		Files.writeString(thumbs.resolve("poster.jpg"), "poster cu");
+
+		ThumbnailService.Thumbnails thumbnails = thumbnailService().generate(source, info());
+
+		assertThat(thumbnails.posterPath()).isEqualTo("thumbs/broken/poster.jpg");
+		assertThat(thumbnails.thumbnailsPath()).isNull();
+		assertThat(Files.readString(thumbs.resolve("poster.jpg"))).isEqualTo("poster cu");
+		assertThat(thumbs.resolveSibling("broken.tmp")).doesNotExist();
+	}
+
+	private Path brokenSource() throws Exception {
+		Path source = Files.createDirectory(uploadDir.resolve("video")).resolve("broken.mp4");
+		Files.writeString(source, "not a video");
+		return source;
+	}
+
+	private ThumbnailService thumbnailService() {
+		FileService fileService = new FileService(null, null);
+		ReflectionTestUtils.setField(fileService, "baseURI", uploadDir.toUri().toString());
+		ThumbnailService thumbnailService = new ThumbnailService(fileService);
+		ReflectionTestUtils.setField(thumbnailService, "intervalSeconds", 10);
+		ReflectionTestUtils.setField(thumbnailService, "tileWidth", 160);
+		ReflectionTestUtils.setField(thumbnailService, "columns", 10);
+		ReflectionTestUtils.setField(thumbnailService, "maxTiles", 100);
+		return thumbnailService;
+	}
+
+	private static MultimediaInfo info() {
+		MultimediaInfo info = new MultimediaInfo();
+		info.setDuration(30_000);
+		info.setVideo(new VideoInfo().setSize(new VideoSize(1280, 720)));
+		return info;
+	}
+}
@@ -0,0 +1,165 @@
+package com.example.VietVibe.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+class JwtKeyMaterialTest {
+
+	private static final String ACCESS = secret(1);
+	private static final String REFRESH = secret(2);
+	private static final String OLD_REFRESH = secret(3);
+
+	private static final long DAY = 86_400;
+	private static final Instant EPOCH_START = Instant.ofEpochSecond(7 * DAY * 3000);
+
+	@Test
+	void keysAreIndexedByKidAndPurpose() throws Exception {
+		JwtKeyMaterial keys = keys(ACCESS, REFRESH, List.of(OLD_REFRESH), false);
+
+		assertThat(keys.access().kid()).hasSize(16).isNotEqualTo(keys.refresh().kid());
+		assertThat(keys.verifier(keys.access().kid(), false)).isSameAs(keys.access().verifier());
+		// khoá access không được dùng để kiểm tra refresh token
+		assertThat(keys.verifier(keys.access().kid(), true)).isNull();
+		assertThat(keys.verifier("unknown", false)).isNull();
+		assertThat(keys.verifier(null, true)).isSameAs(keys.refresh().verifier());
+	}
+
+	@Test
+	void refreshDecoderAcceptsPreviousKeyByKid() throws Exception {
+		JwtKeyMaterial before = keys(ACCESS, OLD_REFRESH, List.of(), false);
+		String issuedBeforeRotation = sign(before.refresh());
+
+		JwtKeyMaterial after = keys(ACCESS, REFRESH, List.of(OLD_REFRESH), false);
+
+		assertThat(after.refreshDecoder().decode(issuedBeforeRotation).getSubject()).isEqualTo("user@vietvibe.vn");
+		assertThat(after.refreshDecoder().decode(sign(after.refresh())).getSubject()).isEqualTo("user@vietvibe.vn");
+	}
+
+	@Test
+	void rotationKeepsOldKeysVerifiableUntilTheirTokensExpire() throws Exception {
+		JwtKeyMaterial keys = keys(ACCESS, REFRESH, List.of(), true);
+		keys.rotate(EPOCH_START.plusSeconds(DAY));
+		JwtKeyMaterial.SigningKey first = keys.refresh();
+		String issuedInFirstPeriod = sign(first);
+
+		// một giờ trước mốc: khoá kế tiếp đã được công bố nhưng chưa dùng để ký
+		keys.rotate(EPOCH_START.plusSeconds(7 * DAY - 1800));
+		assertThat(keys.refresh()).isSameAs(first);
+
+		keys.rotate(EPOCH_START.plusSeconds(7 * DAY + 60));
+		JwtKeyMaterial.SigningKey second = keys.refresh();
+		assertThat(second.kid()).isNotEqualTo(first.kid());
+		assertThat(second.state()).isEqualTo(JwtKeyMaterial.KeyState.ACTIVE);
+		assertThat(keys.verifier(first.kid(), true)).isNotNull();
+		assertThat(keys.refreshDecoder().decode(issuedInFirstPeriod).getSubject()).isEqualTo("user@vietvibe.vn");
+
+		// hết chu kỳ đầu + thời hạn refresh token (30 ngày): khoá đầu bị bỏ
+		keys.rotate(EPOCH_START.plusSeconds(7 * DAY + 30 * DAY + 60));
+		assertThat(keys.verifier(first.kid(), true)).isNull();
+		assertThatThrownBy(() -> keys.refreshDecoder().decode(issuedInFirstPeriod))
+				.isInstanceOf(JwtException.class);
+	}
+
+	@Test
+	void changingRootSecretKeepsOutstandingTokensValid() throws Exception {
+		JwtKeyMaterial before = keys(ACCESS, OLD_REFRESH, List.of(), true);
+		before.rotate(EPOCH_START.plusSeconds(8 * DAY));
+		String issuedWithOldSecret = sign(before.refresh());
+
+		JwtKeyMaterial after = keys(ACCESS, REFRESH, List.of(OLD_REFRESH), true);
+		after.rotate(EPOCH_START.plusSeconds(8 * DAY + 60));
+		assertThat(after.refresh().kid()).isNotEqualTo(before.refresh().kid());
+		assertThat(after.refreshDecoder().decode(issuedWithOldSecret).getSubject()).isEqualTo("user@vietvibe.vn");
+
+		// vẫn nhận sau khi sang chu kỳ mới, tới khi token của chu kỳ đó hết hạn
+		after.rotate(EPOCH_START.plusSeconds(15 * DAY));
+		assertThat(after.verifier(before.refresh().kid(), true)).isNotNull();
+		after.rotate(EPOCH_START.plusSeconds(14 * DAY + 30 * DAY + 60));
+		assertThat(after.verifier(before.refresh().kid(), true)).isNull();
+	}
+
+	@Test
+	void rawSecretsAreRetiredAfterLongestTokenLifetime() throws Exception {
+		String rawRefresh = keys(ACCESS, REFRESH, List.of(), false).refresh().kid();
+		String rawOldRefresh = keys(ACCESS, OLD_REFRESH, List.of(), false).refresh().kid();
+		JwtKeyMaterial keys = keys(ACCESS, REFRESH, List.of(OLD_REFRESH), true);
+
+		keys.rotate(EPOCH_START.plusSeconds(DAY));
+		assertThat(keys.verifier(null, true)).isNotNull();
+		assertThat(keys.verifier(rawRefresh, true)).isNotNull();
+		assertThat(keys.verifier(rawOldRefresh, true)).isNotNull();
+
+		// rotation.started-at + 30 ngày (thời hạn refresh token)
+		keys.rotate(EPOCH_START.plusSeconds(30 * DAY + 60));
+		assertThat(keys.verifier(null, true)).isNull();
+		assertThat(keys.verifier(null, false)).isNull();
+		assertThat(keys.verifier(rawRefresh, true)).isNull();
+		assertThat(keys.verifier(rawOldRefresh, true)).isNull();
+		assertThat(keys.verifier(keys.refresh().kid(), true)).isSameAs(keys.refresh().verifier());
+	}
+
+	@Test
+	void derivedKeysAreTheSameOnEveryInstance() throws Exception {
+		JwtKeyMaterial a = keys(ACCESS, REFRESH, List.of(), true);
+		JwtKeyMaterial b = keys(ACCESS, REFRESH, List.of(), true);
+		a.rotate(EPOCH_START.plusSeconds(DAY));
+		b.rotate(EPOCH_START.plusSeconds(2 * DAY));
+
+		assertThat(a.access().kid()).isEqualTo(b.access().kid()).isNotEqualTo(keys(ACCESS, REFRESH, List.of(), false)
+				.access().kid());
+	}
+
+	private static JwtKeyMaterial keys(String access, String refresh, List<String> previousRefresh,
+			boolean rotation) throws Exception {
+		JwtKeyMaterial keys = new JwtKeyMaterial();
+		ReflectionTestUtils.setField(keys, "accessSecret", access);
+		ReflectionTestUtils.setField(keys, "refreshSecret", refresh);
+		ReflectionTestUtils.setField(keys, "previousRefreshSecrets", previousRefresh);
+		ReflectionTestUtils.setField(keys, "accessTokenValiditySeconds", DAY);
+		ReflectionTestUtils.setField(keys, "refreshTokenValiditySeconds", 30 * DAY);
+		ReflectionTestUtils.setField(keys, "rotationEnabled", rotation);
+		ReflectionTestUtils.setField(keys, "rotationPeriodSeconds", 7 * DAY);
+		ReflectionTestUtils.setField(keys, "publishAheadSeconds", 3600L);
+		ReflectionTestUtils.setField(keys, "rotationStartedAt", EPOCH_START.toString());
+		keys.init();
+		return keys;
+	}
+
+	private static String sign(JwtKeyMaterial.SigningKey key) throws Exception {
+		JWTClaimsSet claims = new JWTClaimsSet.Builder()
+				.subject("user@vietvibe.vn")
+				.claim("token_type", "refresh")
+				.issueTime(new Date())
+				.expirationTime(Date.from(Instant.now().plus(1, ChronoUnit.HOURS)))
+				.build();
+		SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JwtKeyMaterial.ALGORITHM).keyID(key.kid()).build(),
+				claims);
+		jwt.sign(key.signer());
+		return jwt.serialize();
+	}
+
+	static String secret(int fill) {
+		byte[] key = new byte[64];
+		Arrays.fill(key, (byte) fill);
+		return Base64.getEncoder().encodeToString(key);
+	}
+
+	static JwtKeyMaterial staticKeys(String access, String refresh) throws Exception {
+		return keys(access, refresh, List.of(), false);
+	}
+}
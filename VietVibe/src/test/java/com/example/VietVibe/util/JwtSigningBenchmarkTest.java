@@ -0,0 +1,84 @@
+package com.example.VietVibe.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Date;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+/**
+ * So sánh phát hành + kiểm tra refresh token khi tạo signer/decoder mỗi lần
+ * (cách cũ) và khi dùng lại từ JwtKeyMaterial. Chạy thủ công:
+ * mvn test -Dtest=JwtSigningBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JwtSigningBenchmarkTest {
+
+	private static final int WARMUP = 20_000;
+	private static final int ITERATIONS = 100_000;
+
+	private static final String REFRESH = JwtKeyMaterialTest.secret(2);
+
+	@Test
+	void reusedKeysAreFaster() throws Exception {
+		JwtKeyMaterial keys = JwtKeyMaterialTest.staticKeys(JwtKeyMaterialTest.secret(1), REFRESH);
+		JWTClaimsSet claims = new JWTClaimsSet.Builder()
+				.subject("user@vietvibe.vn")
+				.claim("token_type", "refresh")
+				.issueTime(new Date())
+				.expirationTime(Date.from(Instant.now().plus(1, ChronoUnit.HOURS)))
+				.build();
+
+		Round perCall = () -> {
+			byte[] secret = Base64.getDecoder().decode(REFRESH);
+			SignedJWT jwt = new SignedJWT(new JWSHeader(JwtKeyMaterial.ALGORITHM), claims);
+			jwt.sign(new MACSigner(secret));
+			NimbusJwtDecoder decoder = NimbusJwtDecoder
+					.withSecretKey(new SecretKeySpec(secret, 0, secret.length, "HmacSHA512"))
+					.macAlgorithm(MacAlgorithm.HS512)
+					.build();
+			decoder.decode(jwt.serialize());
+		};
+		Round reused = () -> {
+			SignedJWT jwt = new SignedJWT(
+					new JWSHeader.Builder(JwtKeyMaterial.ALGORITHM).keyID(keys.refresh().kid()).build(), claims);
+			jwt.sign(keys.refresh().signer());
+			keys.refreshDecoder().decode(jwt.serialize());
+		};
+
+		double perCallOps = measure("per-call", perCall);
+		double reusedOps = measure("reused", reused);
+		assertThat(reusedOps).isGreaterThan(perCallOps);
+	}
+
+	private static double measure(String name, Round round) throws Exception {
+		for (int i = 0; i < WARMUP; i++) {
+			round.run();
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			round.run();
+		}
+		double opsPerSecond = ITERATIONS / ((System.nanoTime() - start) / 1e9);
+		System.out.printf("%-8s %,12.0f ops/s%n", name, opsPerSecond);
+		return opsPerSecond;
+	}
+
+	@FunctionalInterface
+	private interface Round {
+		void run() throws Exception;
+	}
+}
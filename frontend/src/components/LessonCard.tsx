@@ -13,6 +13,7 @@ interface LessonCardProps {
   progress?: number;
   locked?: boolean;
   completed?: boolean;
+  posterPath?: string;
 }
 
 const levelColors = {
@@ -30,11 +31,22 @@ const LessonCard = ({
   progress = 0,
   locked = false,
   completed = false,
+  posterPath,
 }: LessonCardProps) => {
   return (
     <Link to={locked ? "#" : `/lesson/${id}`} className={locked ? "pointer-events-none" : ""}>
       <Card className="group h-full flex flex-col hover:scale-[1.02] transition">
-        
+        {posterPath && (
+          <div className="aspect-video bg-muted rounded-t-2xl overflow-hidden">
+            <img
+              src={`${import.meta.env.VITE_BACKEND_URL}/api/v1/storage/${posterPath}`}
+              alt={title}
+              loading="lazy"
+              className="w-full h-full object-cover"
+            />
+          </div>
+        )}
+
         {/* HEADER */}
         <CardHeader className="space-y-3">
           <div className="flex items-start justify-between">
@@ -115,6 +115,7 @@ const LessonsList = () => {
                     progress={lesson.progress}
                     locked={lesson.locked}
                     completed={lesson.completed}
+                    posterPath={lesson.posterPath}
                   />
                 );
 
@@ -4,7 +4,7 @@ import {
   callCreateLesson,
   callUpdateLesson,
   callDeleteLesson,
-  callUploadFile,
+  callUploadFileChunked,
   callFetchVocbulary,
   callFetchLessonDetail,
   callUpdateLessonDetail,
@@ -508,7 +508,7 @@ const LessonsManagement = () => {
   const uploadVideo = async (file: File): Promise<string | null> => {
     try {
       setIsUploading(true);
-      const res = await callUploadFile(file, "video");
+      const res = await callUploadFileChunked(file, "video");
       setTime(res.data.durationFormatted);
       setDurationSeconds(res.data.durationSeconds);
       return res.data.fileName;
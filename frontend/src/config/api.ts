@@ -74,6 +74,17 @@ export const callGetGames = (page = 1, size = 20, filter?: string) => {
   });
 };
 
+// Lấy list game dạng rút gọn (không kèm questions) cho màn danh sách
+export const callGetGameSummaries = (page = 1, size = 20, filter?: string) => {
+  return axios.get<IBackendRes<IPaginationRes<IGame>>>("/api/v1/games/summary", {
+    params: {
+      page,
+      size,
+      ...(filter ? { filter } : {}),
+    },
+  });
+};
+
 // Lấy chi tiết 1 game theo id
 export const callGetGameDetail = (id: string) => {
     return axios.get<IBackendRes<IGame>>(`/api/v1/games/${id}`);
@@ -107,6 +118,7 @@ export const callUpdateGame = (
         description: string;
         type: IGame["type"];
         questions?: IQuestion[];
+        version?: number;
     }
 ) => {
     return axios.put<IBackendRes<IGame>>(`/api/v1/games/${id}`, data);
@@ -261,8 +273,8 @@ export const callGetTotalScore = (userId: string) => {
 };
 
 // Lấy lịch sử của CHÍNH người dùng đang đăng nhập
-export const callGetMyHistory = () => {
-    return axios.get<IBackendRes<PointResponse[]>>('/api/v1/points/history');
+export const callGetMyHistory = (cursor?: string, size = 20) => {
+    return axios.get<IBackendRes<IPaginationRes<PointResponse>>>('/api/v1/points/history', { params: { cursor, size } });
 };
 
 // Mới: Start play to increment timesPlayed
@@ -303,6 +315,70 @@ export const callUploadFile = (file: unknown, folderType: string) => {
   });
 }
 
+// Upload nhiều phần: init -> PUT các chunk song song (kèm SHA-256) -> complete.
+// Chunk lỗi được gửi lại, upload không phải làm lại từ đầu khi rớt mạng.
+interface IUploadSession {
+    uploadId: string;
+    chunkSize: number;
+    totalChunks: number;
+    missingChunks: number[];
+}
+
+const sha256Hex = async (data: ArrayBuffer): Promise<string | undefined> => {
+    if (!globalThis.crypto?.subtle) return undefined;
+    const digest = await crypto.subtle.digest("SHA-256", data);
+    return Array.from(new Uint8Array(digest))
+        .map((b) => b.toString(16).padStart(2, "0"))
+        .join("");
+};
+
+export const callUploadFileChunked = async (
+    file: File,
+    folderType: string,
+    options: { parallel?: number; retries?: number } = {}
+) => {
+    const parallel = options.parallel ?? 3;
+    const retries = options.retries ?? 3;
+
+    const init = (await axios.post<IBackendRes<IUploadSession>>("/api/v1/files/uploads", {
+        fileName: file.name,
+        folder: folderType,
+        size: file.size,
+    })) as unknown as IBackendRes<IUploadSession>;
+    const session = init.data!;
+    const queue = [...session.missingChunks];
+
+    const sendChunk = async (index: number) => {
+        const start = index * session.chunkSize;
+        const body = await file.slice(start, Math.min(file.size, start + session.chunkSize)).arrayBuffer();
+        const checksum = await sha256Hex(body);
+        for (let attempt = 0; ; attempt++) {
+            try {
+                await axios.put(`/api/v1/files/uploads/${session.uploadId}/chunks/${index}`, body, {
+                    headers: {
+                        "Content-Type": "application/octet-stream",
+                        ...(checksum ? { "X-Chunk-Sha256": checksum } : {}),
+                    },
+                });
+                return;
+            } catch (error) {
+                if (attempt >= retries) throw error;
+            }
+        }
+    };
+
+    const worker = async () => {
+        for (let index = queue.shift(); index !== undefined; index = queue.shift()) {
+            await sendChunk(index);
+        }
+    };
+    await Promise.all(Array.from({ length: Math.min(parallel, queue.length) }, worker));
+
+    return axios.post<IBackendRes<{ fileName: string; durationSeconds: number; durationFormatted: string }>>(
+        `/api/v1/files/uploads/${session.uploadId}/complete`
+    );
+};
+
 //MODULE USER LESSONS
 export const callSaveProgress =(lessonId: string, seconds: number) => {
   return axios.post<IBackendRes<unknown>>(`/api/v1/progress/save`, { lessonId, seconds });
@@ -209,6 +209,7 @@ export const useGamesManagement = () => {
           description: raw.description,
           type: raw.type,
           questions,
+          version: raw.version,
         };
 
         setCurrentGame(mappedGame);
@@ -397,11 +398,14 @@ export const useGamesManagement = () => {
         name: currentGame.name.trim(),
         description: (currentGame.description || "").trim(),
         type: currentGame.type,
+        // gửi kèm _id để server chỉ cập nhật phần thay đổi
         questions: (currentGame.questions ?? []).map((q) => ({
+          _id: q._id,
           content: q.content,
           imageUrl: q.imageUrl,
           audioUrl: q.audioUrl,
           answers: (q.answers ?? []).map((a) => ({
+            _id: a._id,
             content: a.content,
             isCorrect: a.isCorrect,
             orderIndex: a.orderIndex,
@@ -414,10 +418,10 @@ export const useGamesManagement = () => {
       if (isCreateMode) {
         res = (await callCreateGame(payload)) as unknown as IBackendRes<IGame>;
       } else {
-        res = (await callUpdateGame(
-          currentGame._id,
-          payload
-        )) as unknown as IBackendRes<IGame>;
+        res = (await callUpdateGame(currentGame._id, {
+          ...payload,
+          version: currentGame.version,
+        })) as unknown as IBackendRes<IGame>;
       }
 
       if (res.error) {
@@ -5,6 +5,7 @@ export interface LessonWithProgress {
   _id: string;
   lessontitle: string;
   videourl: string;
+  posterPath?: string;
   description: string;
   createdAt: string;
   updatedAt: string;
@@ -5,7 +5,7 @@ import { Button } from "@/components/ui/button";
 import { Badge } from "@/components/ui/badge";
 import Header from "@/components/Header";
 import { Gamepad2, Trophy, Zap, Target, Brain, MessageSquare, Image as ImageIcon, Headphones } from "lucide-react";
-import { callGetGames, callGetUserStats } from "@/config/api";
+import { callGetGameSummaries, callGetUserStats } from "@/config/api";
 import { IBackendRes, IPaginationRes } from "@/types/common.type";
 
 const Games = () => {
@@ -17,7 +17,7 @@ const Games = () => {
     const fetchGames = async () => {
       try {
         setLoading(true);
-        const res = (await callGetGames(1, 20)) as unknown as IBackendRes<IPaginationRes<any>>;
+        const res = (await callGetGameSummaries(1, 20)) as unknown as IBackendRes<IPaginationRes<any>>;
         const result = res?.data?.result ?? [];
         setGames(result);
       } catch (err) {
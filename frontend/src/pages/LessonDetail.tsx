@@ -21,6 +21,11 @@ const levelColors = {
   INTERMEDIATE: "bg-accent/10 text-accent hover:bg-accent/20",
   ADVANCE: "bg-primary/10 text-primary hover:bg-primary/20",
 };
+// Trình duyệt phát HLS trực tiếp (Safari, iOS, Android); nơi khác dùng video gốc qua Range
+const supportsNativeHls = () =>
+  typeof document !== "undefined" &&
+  document.createElement("video").canPlayType("application/vnd.apple.mpegurl") !== "";
+
 const LessonDetail = () => {
   const { id } = useParams<{ id: string }>();
   const navigate = useNavigate();
@@ -234,10 +239,18 @@ const LessonDetail = () => {
               <CardContent className="p-0">
                 <div className="aspect-video bg-muted rounded-t-2xl overflow-hidden">
                   <video
-                    src={`${
-                      import.meta.env.VITE_BACKEND_URL
-                    }/api/v1/storage/video/${currentLesson?.videourl}`}
+                    src={
+                      currentLesson?.hlsPath && supportsNativeHls()
+                        ? `${import.meta.env.VITE_BACKEND_URL}/api/v1/storage/${currentLesson.hlsPath}`
+                        : `${import.meta.env.VITE_BACKEND_URL}/api/v1/files/stream/video/${currentLesson?.videourl}`
+                    }
+                    poster={
+                      currentLesson?.posterPath
+                        ? `${import.meta.env.VITE_BACKEND_URL}/api/v1/storage/${currentLesson.posterPath}`
+                        : undefined
+                    }
                     controls
+                    preload="metadata"
                     className="w-full h-full object-cover"
                     onPause={handlePause}
                     onLoadedMetadata={handleLoadedMetadata}
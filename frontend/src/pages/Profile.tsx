@@ -36,6 +36,8 @@ import {
 import { useNavigate } from "react-router-dom";
 import { setUserLoginInfo } from "@/redux/slice/accountSlide";
 
+const HISTORY_PAGE_SIZE = 50;
+
 const Profile = () => {
   const user = useAppSelector((state) => state.account.user);
   const [lessonStats, setLessonStats] = useState<{
@@ -56,6 +58,9 @@ const Profile = () => {
   // --- States cũ của bạn (Giữ nguyên 100%) ---
   const [totalPoints, setTotalPoints] = useState(0);
   const [history, setHistory] = useState<any[]>([]);
+  // Lịch sử phân trang theo cursor: còn nextCursor thì còn trang sau
+  const [historyCursor, setHistoryCursor] = useState<string | undefined>();
+  const [isLoadingHistory, setIsLoadingHistory] = useState(false);
   const [isHistoryOpen, setIsHistoryOpen] = useState(false);
   const [searchTerm, setSearchTerm] = useState("");
   const [currentPage, setCurrentPage] = useState(1);
@@ -77,8 +82,7 @@ const Profile = () => {
           const resTotal = await callGetTotalScore(user._id);
           if (resTotal?.data) setTotalPoints(resTotal.data as any);
 
-          const resHistory = await callGetMyHistory();
-          if (resHistory?.data) setHistory(resHistory.data as any);
+          await loadHistory();
 
           const resLessons = await callFetchLessonsPaginated(1, 100);
           if (resLessons?.data?.result) {
@@ -134,6 +138,28 @@ const Profile = () => {
     fetchProfileStats();
   }, [user?._id]);
 
+  // Không có cursor thì tải lại từ đầu, có thì nối thêm trang sau
+  const loadHistory = async (cursor?: string) => {
+    setIsLoadingHistory(true);
+    try {
+      const resHistory = await callGetMyHistory(cursor, HISTORY_PAGE_SIZE);
+      const page = (resHistory?.data?.result ?? []) as any[];
+      setHistory((prev) => (cursor ? [...prev, ...page] : page));
+      setHistoryCursor(resHistory?.data?.meta?.nextCursor);
+    } finally {
+      setIsLoadingHistory(false);
+    }
+  };
+
+  const handleLoadMoreHistory = async () => {
+    if (!historyCursor || isLoadingHistory) return;
+    try {
+      await loadHistory(historyCursor);
+    } catch (error) {
+      console.error("Lỗi khi tải thêm lịch sử:", error);
+    }
+  };
+
   // --- Logic Xử lý Sửa Profile (Giữ nguyên) ---
   const handleOpenEdit = () => {
     setEditData({
@@ -252,7 +278,7 @@ const Profile = () => {
             <StatsCard
               icon={Gamepad2}
               label="Games Played"
-              value={history.length}
+              value={historyCursor ? `${history.length}+` : history.length}
               color="accent"
             />
           </div>
@@ -540,6 +566,19 @@ const Profile = () => {
                 <h3 className="font-bold text-lg">Không tìm thấy kết quả</h3>
               </div>
             )}
+
+            {historyCursor && (
+              <div className="flex justify-center mt-4">
+                <Button
+                  variant="outline"
+                  className="rounded-lg"
+                  disabled={isLoadingHistory}
+                  onClick={handleLoadMoreHistory}
+                >
+                  {isLoadingHistory ? "Đang tải..." : "Tải thêm lịch sử"}
+                </Button>
+              </div>
+            )}
           </div>
         </DialogContent>
       </Dialog>
@@ -58,6 +58,7 @@ export interface IGame {
     description: string;
     type: "MULTIPLE_CHOICE" | "SENTENCE_ORDER" | "LISTENING_CHOICE";
     questions: IQuestion[];
+    version?: number;
 }
 export interface PointResponse {
     id: number;
@@ -93,6 +94,7 @@ export interface IPaginationMeta {
     pageSize: number;
     pages: number;
     total: number;
+    nextCursor?: string;
 }
 
 export interface IPaginationRes<T> {
@@ -164,6 +166,9 @@ export interface ILesson {
   _id: string;
   lessontitle: string;
   videourl: string;
+  hlsPath?: string;
+  posterPath?: string;
+  thumbnailsPath?: string;
   description: string;
   level: "BEGINNER" | "INTERMEDIATE" | "ADVANCE";
   vocabulary?: IVocabulary[];